@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final long BACKOFF_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private double limit;
+    private long lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      long targetLatencyMs) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Минимальный лимит " + name + " должен быть от 1 до " + maxLimit);
+        }
+        this.name = name;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+    }
+
+    public boolean tryAcquire() {
+        int max = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > targetLatencyNanos) {
+                long now = System.nanoTime();
+                if (now - lastBackoffNanos >= BACKOFF_INTERVAL_NANOS) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastBackoffNanos = now;
+                }
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isSaturated() {
+        return inFlight.get() >= getLimit();
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.admission.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("class", name)
+                .register(registry);
+        Gauge.builder("filmorate.admission.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("class", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.admission.accepted", accepted, LongAdder::sum)
+                .tag("class", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.admission.rejected", rejected, LongAdder::sum)
+                .tag("class", name)
+                .register(registry);
+    }
+}
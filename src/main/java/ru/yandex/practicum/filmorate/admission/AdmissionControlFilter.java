@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"Слишком много запросов\",\"message\":\"Сервер перегружен, повторите запрос позже\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final String retryAfterSeconds;
+
+    public AdmissionControlFilter(@Value("${filmorate.admission.read.initial-limit:200}") int readInitial,
+                                  @Value("${filmorate.admission.read.min-limit:16}") int readMin,
+                                  @Value("${filmorate.admission.read.max-limit:1000}") int readMax,
+                                  @Value("${filmorate.admission.read.target-latency-ms:50}") long readTarget,
+                                  @Value("${filmorate.admission.write.initial-limit:50}") int writeInitial,
+                                  @Value("${filmorate.admission.write.min-limit:4}") int writeMin,
+                                  @Value("${filmorate.admission.write.max-limit:500}") int writeMax,
+                                  @Value("${filmorate.admission.write.target-latency-ms:100}") long writeTarget,
+                                  @Value("${filmorate.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.readLimiter = new AdaptiveConcurrencyLimiter("read", readInitial, readMin, readMax, readTarget);
+        this.writeLimiter = new AdaptiveConcurrencyLimiter("write", writeInitial, writeMin, writeMax,
+                writeTarget);
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith("/films") && !path.startsWith("/users");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !isRead(request);
+        AdaptiveConcurrencyLimiter limiter = write ? writeLimiter : readLimiter;
+        if ((write && readLimiter.isSaturated()) || !limiter.tryAcquire()) {
+            log.debug("Запрос {} {} отклонён контролем нагрузки", request.getMethod(), request.getRequestURI());
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Чтения — безопасные методы и пакетный поиск {@code POST .../batch}, который только читает, как и в
+     * {@code ReadOnlyReplicaFilter}. Остальное считается записью и отсекается первым при перегрузке чтений.
+     */
+    static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || HttpMethod.OPTIONS.matches(method)
+                || (HttpMethod.POST.matches(method) && request.getRequestURI().endsWith("/batch"));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        readLimiter.bindTo(registry);
+        writeLimiter.bindTo(registry);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
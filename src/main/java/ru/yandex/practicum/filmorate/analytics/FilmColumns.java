@@ -0,0 +1,202 @@
+package ru.yandex.practicum.filmorate.analytics;
+
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class FilmColumns {
+
+    public static final int NO_MPA = -1;
+    public static final int GENRE_BITS = Long.SIZE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int mpaValues;
+    private final LongLongHashMap rows = new LongLongHashMap(INITIAL_CAPACITY);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private int[] releaseDays = new int[INITIAL_CAPACITY];
+    private byte[] mpa = new byte[INITIAL_CAPACITY];
+    private long[] genreMasks = new long[INITIAL_CAPACITY];
+    private int[] likes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public FilmColumns(int mpaValues) {
+        this.mpaValues = mpaValues;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void upsert(long filmId, int duration, int releaseDay, int mpaOrdinal, long genreMask, int likeCount) {
+        int row = (int) rows.get(filmId, -1);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rows.put(filmId, row);
+            ids[row] = filmId;
+        }
+        durations[row] = duration;
+        releaseDays[row] = releaseDay;
+        mpa[row] = (byte) mpaOrdinal;
+        genreMasks[row] = genreMask;
+        likes[row] = likeCount;
+    }
+
+    public void setLikes(long filmId, int likeCount) {
+        int row = (int) rows.get(filmId, -1);
+        if (row >= 0) {
+            likes[row] = likeCount;
+        }
+    }
+
+    public void resetLikes() {
+        Arrays.fill(likes, 0, size, 0);
+    }
+
+    public void remove(long filmId) {
+        int row = (int) rows.remove(filmId, -1);
+        if (row < 0) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            durations[row] = durations[last];
+            releaseDays[row] = releaseDays[last];
+            mpa[row] = mpa[last];
+            genreMasks[row] = genreMasks[last];
+            likes[row] = likes[last];
+            rows.put(ids[row], row);
+        }
+    }
+
+    public void clear() {
+        rows.clear();
+        size = 0;
+    }
+
+    /**
+     * Параллельный проход по столбцам: строки делятся на отрезки по {@code chunkSize}, каждый отрезок
+     * считается в собственные массивы без ветвлений по объектам, затем частичные итоги складываются.
+     */
+    public Aggregate scan(int chunkSize) {
+        int chunks = Math.max(1, (size + chunkSize - 1) / chunkSize);
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scanChunk(chunk * chunkSize, Math.min(size, (chunk + 1) * chunkSize)))
+                .reduce(new Aggregate(mpaValues), Aggregate::merge);
+    }
+
+    private Aggregate scanChunk(int from, int to) {
+        Aggregate result = new Aggregate(mpaValues);
+        for (int i = from; i < to; i++) {
+            int slot = mpa[i] + 1;
+            result.mpaFilms[slot]++;
+            result.mpaDurations[slot] += durations[i];
+        }
+        for (int i = from; i < to; i++) {
+            result.filmsByYear.addTo(year(releaseDays[i]), 1);
+        }
+        for (int i = from; i < to; i++) {
+            long mask = genreMasks[i];
+            int likeCount = likes[i];
+            while (mask != 0) {
+                result.likesByGenre[Long.numberOfTrailingZeros(mask)] += likeCount;
+                mask &= mask - 1;
+            }
+            result.totalLikes += likeCount;
+        }
+        result.films = to - from;
+        return result;
+    }
+
+    /**
+     * Год по номеру дня от эпохи чисто арифметически, без создания {@code LocalDate}
+     * (алгоритм civil_from_days Говарда Хиннанта).
+     */
+    static int year(int epochDay) {
+        int z = epochDay + 719_468;
+        int era = Math.floorDiv(z, 146_097);
+        int dayOfEra = z - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        return yearOfEra + era * 400 + (shiftedMonth >= 10 ? 1 : 0);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        durations = Arrays.copyOf(durations, newCapacity);
+        releaseDays = Arrays.copyOf(releaseDays, newCapacity);
+        mpa = Arrays.copyOf(mpa, newCapacity);
+        genreMasks = Arrays.copyOf(genreMasks, newCapacity);
+        likes = Arrays.copyOf(likes, newCapacity);
+    }
+
+    public static final class Aggregate {
+        private final long[] mpaFilms;
+        private final long[] mpaDurations;
+        // Годы разрежены (одна дата в далёком будущем не должна раздувать плотный массив на миллионы ячеек)
+        private final LongLongHashMap filmsByYear = new LongLongHashMap(128);
+        private final long[] likesByGenre = new long[GENRE_BITS];
+        private long totalLikes;
+        private long films;
+
+        private Aggregate(int mpaValues) {
+            this.mpaFilms = new long[mpaValues + 1];
+            this.mpaDurations = new long[mpaValues + 1];
+        }
+
+        public long films() {
+            return films;
+        }
+
+        public long totalLikes() {
+            return totalLikes;
+        }
+
+        /** Число фильмов с рейтингом {@code ordinal}; {@link #NO_MPA} — без рейтинга. */
+        public long mpaFilms(int ordinal) {
+            return mpaFilms[ordinal + 1];
+        }
+
+        public long mpaDurationSum(int ordinal) {
+            return mpaDurations[ordinal + 1];
+        }
+
+        /** Обходит только годы, в которых есть фильмы, в произвольном порядке. */
+        public void forEachYear(LongLongHashMap.LongLongConsumer action) {
+            filmsByYear.forEach(action);
+        }
+
+        public long filmsInYear(int year) {
+            return filmsByYear.get(year, 0);
+        }
+
+        public long likesForGenre(int bit) {
+            return likesByGenre[bit];
+        }
+
+        private Aggregate merge(Aggregate other) {
+            Aggregate result = new Aggregate(mpaFilms.length - 1);
+            for (int i = 0; i < mpaFilms.length; i++) {
+                result.mpaFilms[i] = mpaFilms[i] + other.mpaFilms[i];
+                result.mpaDurations[i] = mpaDurations[i] + other.mpaDurations[i];
+            }
+            filmsByYear.forEach(result.filmsByYear::addTo);
+            other.filmsByYear.forEach(result.filmsByYear::addTo);
+            for (int i = 0; i < GENRE_BITS; i++) {
+                result.likesByGenre[i] = likesByGenre[i] + other.likesByGenre[i];
+            }
+            result.totalLikes = totalLikes + other.totalLikes;
+            result.films = films + other.films;
+            return result;
+        }
+    }
+}
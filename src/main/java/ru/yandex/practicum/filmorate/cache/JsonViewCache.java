@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.FriendshipEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Готовый JSON фильмов и пользователей по id. Запись помечена версией сущности, поэтому байты старой
+ * версии не отдаются для новой. Лайки и друзья версию не меняют, для них у каждой полосы id есть
+ * счётчик инвалидаций: заполнение запоминает его до сериализации и убирает свою запись, если за это
+ * время полоса была инвалидирована.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonViewCache implements MeterBinder {
+
+    private final ObjectMapper objectMapper;
+
+    private static final int STRIPES = 256;
+
+    private final Map<Long, Entry> films = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> users = new ConcurrentHashMap<>();
+    private final AtomicLongArray filmStamps = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray userStamps = new AtomicLongArray(STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public boolean supports(Object value) {
+        return (value instanceof Film film && film.getId() != null)
+                || (value instanceof User user && user.getId() != null);
+    }
+
+    public byte[] bytes(Object value) {
+        if (value instanceof Film film) {
+            return lookup(films, filmStamps, film.getId(), film.getVersion(), film);
+        }
+        User user = (User) value;
+        return lookup(users, userStamps, user.getId(), user.getVersion(), user);
+    }
+
+    @EventListener
+    public void onFilmEvent(FilmEvent event) {
+        invalidate(films, filmStamps, event.type(), event.filmId());
+    }
+
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        invalidate(users, userStamps, event.type(), event.userId());
+        if (event.type() == EventType.CLEARED) {
+            invalidate(films, filmStamps, EventType.CLEARED, null);
+        }
+    }
+
+    @EventListener
+    public void onLikesEvent(LikesEvent event) {
+        event.changes().forEach(change -> invalidate(films, filmStamps, change.filmId()));
+    }
+
+    @EventListener
+    public void onLikeCountsEvent(LikeCountsEvent event) {
+        for (long filmId : event.filmIds()) {
+            invalidate(films, filmStamps, filmId);
+        }
+    }
+
+    @EventListener
+    public void onFriendshipEvent(FriendshipEvent event) {
+        invalidate(users, userStamps, event.userId());
+        invalidate(users, userStamps, event.friendId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.cache.size", films, Map::size)
+                .tag("cache", "film-json")
+                .register(registry);
+        Gauge.builder("filmorate.cache.size", users, Map::size)
+                .tag("cache", "user-json")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.hits", hits, LongAdder::sum)
+                .tag("cache", "json")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.misses", misses, LongAdder::sum)
+                .tag("cache", "json")
+                .register(registry);
+    }
+
+    private byte[] lookup(Map<Long, Entry> cache, AtomicLongArray stamps, Long id, long version, Object value) {
+        Entry cached = cache.get(id);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.bytes();
+        }
+        misses.increment();
+        int stripe = stripe(id);
+        long stamp = stamps.get(stripe);
+        Entry filled = new Entry(version, serialize(value));
+        Entry stored = cache.merge(id, filled, (old, fresh) -> old.version() > fresh.version() ? old : fresh);
+        if (stored == filled && stamps.get(stripe) != stamp) {
+            cache.remove(id, filled);
+        }
+        return filled.bytes();
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void invalidate(Map<Long, Entry> cache, AtomicLongArray stamps, EventType type, Long id) {
+        if (type == EventType.CLEARED) {
+            for (int i = 0; i < STRIPES; i++) {
+                stamps.incrementAndGet(i);
+            }
+            cache.clear();
+        } else if (id != null) {
+            invalidate(cache, stamps, id);
+        }
+    }
+
+    private static void invalidate(Map<Long, Entry> cache, AtomicLongArray stamps, Long id) {
+        stamps.incrementAndGet(stripe(id));
+        cache.remove(id);
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+
+    private record Entry(long version, byte[] bytes) {
+    }
+}
@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * LRU-кеш со счётчиком поколений для заполнения без гонок. Если задана функция меток, кеш ведёт обратный
+ * индекс от метки к ключам, и {@link #invalidateTagged(long...)} удаляет только записи с этими метками,
+ * не обходя весь кеш.
+ */
+public class LruCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private final Function<K, long[]> tagsOf;
+    private final Map<Long, Set<K>> keysByTag = new HashMap<>();
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(String name, int maxSize) {
+        this(name, maxSize, null);
+    }
+
+    public LruCache(String name, int maxSize, Function<K, long[]> tagsOf) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.tagsOf = tagsOf;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    untag(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    public synchronized void putIfFresh(K key, V value, long stamp) {
+        if (stamp == generation && maxSize > 0 && entries.put(key, value) == null) {
+            tag(key);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (entries.remove(key) != null) {
+            untag(key);
+        }
+    }
+
+    public synchronized void invalidateTagged(long... tags) {
+        generation++;
+        for (long tag : tags) {
+            Set<K> keys = keysByTag.remove(tag);
+            if (keys == null) {
+                continue;
+            }
+            for (K key : keys) {
+                entries.remove(key);
+                untag(key);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        keysByTag.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private void tag(K key) {
+        if (tagsOf == null) {
+            return;
+        }
+        for (long tag : tagsOf.apply(key)) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void untag(K key) {
+        if (tagsOf == null) {
+            return;
+        }
+        for (long tag : tagsOf.apply(key)) {
+            Set<K> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.cache.size", this, LruCache::size)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.hits", this, LruCache::getHits)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.misses", this, LruCache::getMisses)
+                .tag("cache", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.evictions", this, LruCache::getEvictions)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
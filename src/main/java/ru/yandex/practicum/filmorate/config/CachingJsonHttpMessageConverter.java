@@ -0,0 +1,186 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import ru.yandex.practicum.filmorate.cache.JsonViewCache;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+public class CachingJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final int ARRAY_START = '[';
+    private static final int ARRAY_END = ']';
+    private static final int SEPARATOR = ',';
+    private static final byte[] BATCH_ITEMS = "{\"items\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BATCH_MISSING = ",\"missing\":".getBytes(StandardCharsets.UTF_8);
+    private static final int OBJECT_END = '}';
+
+    private final JsonViewCache jsonViewCache;
+    private final int compressionThreshold;
+
+    public CachingJsonHttpMessageConverter(ObjectMapper objectMapper, JsonViewCache jsonViewCache,
+                                           int compressionThreshold) {
+        super(objectMapper);
+        this.jsonViewCache = jsonViewCache;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Тело ниже порога {@code server.compression.min-response-size} пишется с известной длиной: без
+     * Content-Length Tomcat сжал бы и его. Тело, которое порог превысило, всё равно будет сжато, поэтому
+     * сериализуется в ответ потоком и целиком в памяти не собирается.
+     */
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (jsonViewCache.supports(object)) {
+            write(jsonViewCache.bytes(object), outputMessage);
+        } else if (object instanceof Collection<?> values && !values.isEmpty() && allCached(values)) {
+            byte[][] parts = cachedBytes(values);
+            outputMessage.getHeaders().setContentLength(arrayLength(parts));
+            writeArray(parts, outputMessage.getBody());
+        } else if (object instanceof BatchResult<?> batch && allCached(batch.items())) {
+            byte[][] parts = cachedBytes(batch.items());
+            byte[] missing = getObjectMapper().writeValueAsBytes(batch.missing());
+            outputMessage.getHeaders().setContentLength(
+                    BATCH_ITEMS.length + arrayLength(parts) + BATCH_MISSING.length + missing.length + 1);
+            OutputStream out = outputMessage.getBody();
+            out.write(BATCH_ITEMS);
+            writeArray(parts, out);
+            out.write(BATCH_MISSING);
+            out.write(missing);
+            out.write(OBJECT_END);
+        } else {
+            ThresholdOutputStream body = new ThresholdOutputStream(outputMessage, compressionThreshold);
+            super.writeInternal(object, type, new BufferedOutputMessage(outputMessage.getHeaders(), body));
+            body.finish();
+        }
+    }
+
+    private boolean allCached(Collection<?> values) {
+        for (Object value : values) {
+            if (!jsonViewCache.supports(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Коллекция может быть живым представлением хранилища, размер которого меняется во время обхода,
+     * поэтому массив строится по её снимку.
+     */
+    private byte[][] cachedBytes(Collection<?> values) {
+        Object[] snapshot = values.toArray();
+        byte[][] parts = new byte[snapshot.length][];
+        for (int i = 0; i < snapshot.length; i++) {
+            parts[i] = jsonViewCache.bytes(snapshot[i]);
+        }
+        return parts;
+    }
+
+    private static long arrayLength(byte[][] parts) {
+        long length = 2 + Math.max(0, parts.length - 1);
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        return length;
+    }
+
+    private static void write(byte[] bytes, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+
+    private static void writeArray(byte[][] parts, OutputStream out) throws IOException {
+        out.write(ARRAY_START);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                out.write(SEPARATOR);
+            }
+            out.write(parts[i]);
+        }
+        out.write(ARRAY_END);
+    }
+
+    /**
+     * Копит байты, пока их не больше {@code threshold}, а при переполнении отдаёт накопленное в тело ответа
+     * и дальше пишет в него напрямую.
+     */
+    private static final class ThresholdOutputStream extends OutputStream {
+        private final HttpOutputMessage target;
+        private final byte[] buffer;
+        private int count;
+        private OutputStream direct;
+
+        private ThresholdOutputStream(HttpOutputMessage target, int threshold) {
+            this.target = target;
+            this.buffer = new byte[threshold];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (direct == null && count == buffer.length) {
+                spill();
+            }
+            if (direct != null) {
+                direct.write(b);
+            } else {
+                buffer[count++] = (byte) b;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (direct == null && count + length > buffer.length) {
+                spill();
+            }
+            if (direct != null) {
+                direct.write(bytes, offset, length);
+            } else {
+                System.arraycopy(bytes, offset, buffer, count, length);
+                count += length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (direct != null) {
+                direct.flush();
+            }
+        }
+
+        private void spill() throws IOException {
+            direct = target.getBody();
+            direct.write(buffer, 0, count);
+        }
+
+        private void finish() throws IOException {
+            if (direct == null) {
+                target.getHeaders().setContentLength(count);
+                target.getBody().write(buffer, 0, count);
+            }
+        }
+    }
+
+    private record BufferedOutputMessage(HttpHeaders headers, OutputStream body) implements HttpOutputMessage {
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ru.yandex.practicum.filmorate.util.IdSet;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Пишет множество id одним вызовом {@link JsonGenerator#writeArray(long[], int, int)}: без поиска сериализатора
+ * для каждого элемента, а бинарные генераторы (CBOR) кодируют такой массив сразу целиком. {@link IdSet} отдаёт
+ * массив сам, без обхода упакованных значений.
+ */
+public class IdArraySerializer extends StdSerializer<Collection<Long>> {
+
+    @SuppressWarnings("unchecked")
+    public IdArraySerializer() {
+        super((Class<Collection<Long>>) (Class<?>) Collection.class);
+    }
+
+    @Override
+    public void serialize(Collection<Long> ids, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (ids instanceof IdSet idSet) {
+            long[] values = idSet.toLongArray();
+            gen.writeArray(values, 0, values.length);
+            return;
+        }
+        long[] values = new long[ids.size()];
+        int size = 0;
+        for (Long id : ids) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2 + 1);
+            }
+            values[size++] = id;
+        }
+        gen.writeArray(values, 0, size);
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, Collection<Long> ids) {
+        return ids.isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.cache.JsonViewCache;
+
+@Configuration
+public class JacksonConfig {
+
+    public static final String PROJECTION_FILTER = "projection";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer projectionFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(PROJECTION_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper, JsonViewCache jsonViewCache,
+            @Value("${server.compression.min-response-size:2KB}") DataSize compressionThreshold) {
+        return new CachingJsonHttpMessageConverter(objectMapper, jsonViewCache,
+                Math.toIntExact(compressionThreshold.toBytes()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.DictionaryService;
+
+import java.time.Duration;
+import java.util.List;
+
+@RestController
+public class DictionaryController {
+
+    private final DictionaryService dictionaryService;
+    private final CacheControl cacheControl;
+
+    public DictionaryController(DictionaryService dictionaryService,
+                                @Value("${filmorate.dictionary.max-age-seconds:86400}") long maxAgeSeconds) {
+        this.dictionaryService = dictionaryService;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic().immutable();
+    }
+
+    @GetMapping("/genres")
+    public ResponseEntity<List<Genre>> getGenres() {
+        return cached(dictionaryService.getGenres());
+    }
+
+    @GetMapping("/genres/{id}")
+    public ResponseEntity<Genre> getGenre(@PathVariable long id) {
+        return cached(dictionaryService.getGenre(id));
+    }
+
+    @GetMapping("/mpa")
+    public ResponseEntity<List<Mpa>> getMpaRatings() {
+        return cached(dictionaryService.getMpaRatings());
+    }
+
+    @GetMapping("/mpa/{id}")
+    public ResponseEntity<Mpa> getMpa(@PathVariable int id) {
+        return cached(dictionaryService.getMpa(id));
+    }
+
+    private <T> ResponseEntity<T> cached(T body) {
+        return ResponseEntity.ok().cacheControl(cacheControl).body(body);
+    }
+}
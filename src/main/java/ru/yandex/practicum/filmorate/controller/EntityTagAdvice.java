@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+@RestControllerAdvice(assignableTypes = {FilmController.class, UserController.class})
+public class EntityTagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        Class<?> type = returnType.getParameterType();
+        return type == Film.class || type == User.class;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof Film film) {
+            response.getHeaders().setETag(EntityTags.of(film.getVersion()));
+        } else if (body instanceof User user) {
+            response.getHeaders().setETag(EntityTags.of(user.getVersion()));
+        }
+        return body;
+    }
+}
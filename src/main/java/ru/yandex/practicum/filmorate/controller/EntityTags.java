@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный заголовок If-Match: " + ifMatch);
+        }
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+}
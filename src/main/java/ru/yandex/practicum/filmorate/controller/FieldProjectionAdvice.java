@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import ru.yandex.practicum.filmorate.config.JacksonConfig;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestControllerAdvice(assignableTypes = {FilmController.class, UserController.class})
+public class FieldProjectionAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FIELDS_PARAM = "fields";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                && returnType.hasMethodAnnotation(GetMapping.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAM);
+        if (fields == null || fields.isBlank()) {
+            return body;
+        }
+        MappingJacksonValue value = body instanceof MappingJacksonValue wrapped
+                ? wrapped
+                : new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(JacksonConfig.PROJECTION_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(parse(fields))));
+        return value;
+    }
+
+    private Set<String> parse(String fields) {
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
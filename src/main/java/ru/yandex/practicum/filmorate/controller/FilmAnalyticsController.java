@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.FilmAnalytics;
+import ru.yandex.practicum.filmorate.service.FilmAnalyticsService;
+
+@RestController
+@RequestMapping("/films/analytics")
+@RequiredArgsConstructor
+public class FilmAnalyticsController {
+
+    private final FilmAnalyticsService filmAnalyticsService;
+
+    @GetMapping
+    public FilmAnalytics getAnalytics() {
+        return filmAnalyticsService.getAnalytics();
+    }
+}
@@ -1,8 +1,11 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.Collection;
@@ -16,8 +19,20 @@ public class FilmController {
     private final FilmService filmService;
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return filmService.findAll();
+    public Collection<Film> findAll(@RequestParam(name = "userId", required = false) Long userId) {
+        return filmService.findAll(userId);
+    }
+
+    @GetMapping(params = "ids")
+    public BatchResult<Film> findByIds(@RequestParam List<Long> ids,
+                                       @RequestParam(name = "userId", required = false) Long userId) {
+        return filmService.findByIds(ids, userId);
+    }
+
+    @PostMapping("/batch")
+    public BatchResult<Film> findByIdsBatch(@RequestBody List<Long> ids,
+                                            @RequestParam(name = "userId", required = false) Long userId) {
+        return filmService.findByIds(ids, userId);
     }
 
     @PostMapping
@@ -26,8 +41,9 @@ public class FilmController {
     }
 
     @PutMapping
-    public Film update(@RequestBody Film film) {
-        return filmService.update(film);
+    public Film update(@RequestBody Film film,
+                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return filmService.update(film, EntityTags.expectedVersion(ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -51,7 +67,16 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public List<Film> getMostPopular(@RequestParam (name = "count", defaultValue = "10") int count) {
-        return filmService.getMostPopular(count);
+    public List<Film> getMostPopular(@RequestParam (name = "count", defaultValue = "10") int count,
+                                     @RequestParam(name = "genreId", required = false) Long genreId,
+                                     @RequestParam(name = "userId", required = false) Long userId) {
+        return filmService.getMostPopular(count, genreId, userId);
+    }
+
+    @GetMapping("/trending")
+    public List<Film> getTrending(@RequestParam(name = "window", defaultValue = "24h") String window,
+                                  @RequestParam(name = "count", defaultValue = "10") int count,
+                                  @RequestParam(name = "userId", required = false) Long userId) {
+        return filmService.getTrending(TrendingWindow.fromParam(window), count, userId);
     }
 }
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.service.LikeStreamBroadcaster;
+
+@RestController
+@RequestMapping("/films/stream")
+@RequiredArgsConstructor
+public class FilmStreamController {
+
+    private final LikeStreamBroadcaster likeStreamBroadcaster;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return likeStreamBroadcaster.subscribe();
+    }
+}
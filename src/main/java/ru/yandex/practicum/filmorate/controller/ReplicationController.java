@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.ReplicationStatus;
+import ru.yandex.practicum.filmorate.replication.ReplicationFollower;
+import ru.yandex.practicum.filmorate.replication.ReplicationLog;
+import ru.yandex.practicum.filmorate.replication.ReplicationServer;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/replication")
+@RequiredArgsConstructor
+public class ReplicationController {
+
+    private final Optional<ReplicationLog> replicationLog;
+    private final Optional<ReplicationServer> replicationServer;
+    private final Optional<ReplicationFollower> replicationFollower;
+
+    @GetMapping
+    public ReplicationStatus getStatus() {
+        if (replicationFollower.isPresent()) {
+            ReplicationFollower follower = replicationFollower.get();
+            return new ReplicationStatus("follower", follower.getEpoch(), follower.getAppliedSeq(),
+                    follower.getLeaderHead(), follower.getLag(), follower.isConnected(), 0);
+        }
+        if (replicationLog.isPresent()) {
+            long head = replicationLog.get().getHead();
+            return new ReplicationStatus("leader", replicationLog.get().getEpoch(), head, head, 0, true,
+                    replicationServer.map(ReplicationServer::getFollowerCount).orElse(0));
+        }
+        return new ReplicationStatus("none", 0, 0, 0, 0, false, 0);
+    }
+}
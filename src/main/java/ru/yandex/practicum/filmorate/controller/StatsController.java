@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.CatalogStats;
+import ru.yandex.practicum.filmorate.service.StatsService;
+
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping
+    public CatalogStats getStats() {
+        return statsService.getStats();
+    }
+}
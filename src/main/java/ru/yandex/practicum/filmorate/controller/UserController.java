@@ -1,7 +1,10 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
@@ -20,14 +23,25 @@ public class UserController {
         return userService.findAll();
     }
 
+    @GetMapping(params = "ids")
+    public BatchResult<User> findByIds(@RequestParam List<Long> ids) {
+        return userService.findByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    public BatchResult<User> findByIdsBatch(@RequestBody List<Long> ids) {
+        return userService.findByIds(ids);
+    }
+
     @PostMapping
     public User create(@RequestBody User user) {
         return userService.create(user);
     }
 
     @PutMapping
-    public User update(@RequestBody User user) {
-        return userService.update(user);
+    public User update(@RequestBody User user,
+                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return userService.update(user, EntityTags.expectedVersion(ifMatch));
     }
 
     @DeleteMapping("/{id}")
@@ -59,4 +73,25 @@ public class UserController {
     public List<User> getCommonFriends(@PathVariable Long id, @PathVariable Long otherId) {
         return userService.getCommonFriends(id, otherId);
     }
+
+    @GetMapping("/{id}/friends/confirmed")
+    public List<User> getConfirmedFriends(@PathVariable Long id) {
+        return userService.getConfirmedFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/requests")
+    public List<User> getFriendRequests(@PathVariable Long id) {
+        return userService.getFriendRequests(id);
+    }
+
+    @GetMapping("/{id}/friends/{friendId}/status")
+    public Friendship getFriendship(@PathVariable Long id, @PathVariable Long friendId) {
+        return userService.getFriendship(id, friendId);
+    }
+
+    @GetMapping("/{id}/path/{otherId}")
+    public List<User> getPath(@PathVariable Long id, @PathVariable Long otherId,
+                              @RequestParam(name = "maxDepth", defaultValue = "6") int maxDepth) {
+        return userService.getPath(id, otherId, maxDepth);
+    }
 }
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.event;
+
+public enum EventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    CLEARED
+}
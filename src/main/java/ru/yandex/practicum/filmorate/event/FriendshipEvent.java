@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.event;
+
+public record FriendshipEvent(Long userId, Long friendId, boolean added) {
+}
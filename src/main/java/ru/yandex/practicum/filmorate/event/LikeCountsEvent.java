@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.event;
+
+/**
+ * Лайки, добавленные пакетом: для фильма {@code filmIds[i]} прибавилось {@code added[i]} лайков. Отдельные
+ * связи в событие не попадают, их текущий набор хранится в хранилище лайков.
+ */
+public record LikeCountsEvent(long[] filmIds, long[] added) {
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.event;
+
+import java.util.List;
+
+public record LikesEvent(List<LikeChange> changes) {
+
+    public static LikesEvent of(Long filmId, Long userId, boolean added) {
+        return new LikesEvent(List.of(new LikeChange(filmId, userId, added)));
+    }
+
+    public record LikeChange(Long filmId, Long userId, boolean added) {
+    }
+}
@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -12,8 +14,17 @@ public class ErrorHandler {
 
     @ExceptionHandler(ValidationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public Map<String, String> handleValidationException(ValidationException e) {
-        return Map.of("error", "Ошибка валидации", "message", e.getMessage());
+    public Map<String, Object> handleValidationException(ValidationException e) {
+        return Map.of("error", "Ошибка валидации", "message", e.getMessage(), "violations", e.getViolations());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleNotReadableException(HttpMessageNotReadableException e) {
+        if (e.getMostSpecificCause() instanceof ValidationException validation) {
+            return handleValidationException(validation);
+        }
+        return Map.of("error", "Некорректный запрос", "message", e.getMostSpecificCause().getMessage());
     }
 
     @ExceptionHandler(NotFoundException.class)
@@ -22,6 +33,19 @@ public class ErrorHandler {
         return Map.of("error", "Не найдено", "message", e.getMessage());
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, String>> handlePreconditionFailedException(PreconditionFailedException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .eTag(String.valueOf(e.getCurrentVersion()))
+                .body(Map.of("error", "Конфликт версий", "message", e.getMessage()));
+    }
+
+    @ExceptionHandler(SearchTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleSearchTimeoutException(SearchTimeoutException e) {
+        return Map.of("error", "Превышено время поиска", "message", e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Map<String, String> handleOtherException(Exception e) {
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    private final long currentVersion;
+
+    public PreconditionFailedException(String message, long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
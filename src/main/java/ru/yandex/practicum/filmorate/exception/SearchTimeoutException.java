@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class SearchTimeoutException extends RuntimeException {
+    public SearchTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,21 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import java.util.List;
+
 public class ValidationException extends RuntimeException {
+
+    private final List<String> violations;
+
     public ValidationException(String message) {
-        super(message);
+        this(List.of(message));
+    }
+
+    public ValidationException(List<String> violations) {
+        super(String.join("; ", violations), null, false, false);
+        this.violations = violations;
+    }
+
+    public List<String> getViolations() {
+        return violations;
     }
 }
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.loader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "filmorate.load.dir")
+public class BulkLoadRunner implements ApplicationRunner {
+
+    private final BulkLoader bulkLoader;
+
+    @Value("${filmorate.load.dir}")
+    private String dir;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        bulkLoader.load(Path.of(dir));
+        log.info("Начальная загрузка данных из {} завершена за {} мс", dir, System.currentTimeMillis() - start);
+    }
+}
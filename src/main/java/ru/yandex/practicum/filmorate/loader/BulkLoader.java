@@ -0,0 +1,410 @@
+package ru.yandex.practicum.filmorate.loader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.service.FriendsCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongArrayList;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+@Slf4j
+@Component
+public class BulkLoader {
+
+    public static final String FILMS_FILE = "films.ndjson";
+    public static final String USERS_FILE = "users.ndjson";
+    public static final String LIKES_FILE = "likes.csv";
+    public static final String FRIENDSHIPS_FILE = "friendships.csv";
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final long ID_MASK = 0xFFFFFFFFL;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final CascadeLock cascadeLock;
+    private final FriendsCache friendsCache;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int parallelism;
+
+    public BulkLoader(FilmStorage filmStorage, UserStorage userStorage, LikeStorage likeStorage,
+                      FriendshipStorage friendshipStorage, CascadeLock cascadeLock, FriendsCache friendsCache,
+                      ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                      @Value("${filmorate.load.parallelism:0}") int parallelism) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likeStorage = likeStorage;
+        this.friendshipStorage = friendshipStorage;
+        this.cascadeLock = cascadeLock;
+        this.friendsCache = friendsCache;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public List<LoadReport> load(Path dir) {
+        log.info("Загрузка данных из каталога {}, потоков: {}", dir, parallelism);
+        List<LoadReport> reports = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(parallelism)) {
+            loadIfExists(dir.resolve(FILMS_FILE), file -> loadFilms(file, pool), reports);
+            loadIfExists(dir.resolve(USERS_FILE), file -> loadUsers(file, pool), reports);
+            loadIfExists(dir.resolve(LIKES_FILE), file -> loadLikes(file, pool), reports);
+            loadIfExists(dir.resolve(FRIENDSHIPS_FILE), file -> loadFriendships(file, pool), reports);
+        }
+        friendsCache.invalidateAll();
+        return reports;
+    }
+
+    private void loadIfExists(Path file, Function<Path, LoadReport> loader, List<LoadReport> reports) {
+        if (!Files.isRegularFile(file)) {
+            log.debug("Файл {} не найден, пропускаем", file);
+            return;
+        }
+        LoadReport report = loader.apply(file);
+        log.info("Загружен {}: принято {}, отклонено {}, {} мс",
+                report.source(), report.accepted(), report.rejected(), report.millis());
+        reports.add(report);
+    }
+
+    private LoadReport loadFilms(Path file, ExecutorService pool) {
+        long start = System.currentTimeMillis();
+        List<EntityChunk> chunks = parseChunks(file, pool, chunk -> parseEntities(chunk, bytes -> {
+            return filmStorage.insert(objectMapper.readValue(bytes, Film.class)).getId();
+        }));
+        return publishCreated(file, chunks, start, id -> new FilmEvent(EventType.CREATED, id));
+    }
+
+    private LoadReport loadUsers(Path file, ExecutorService pool) {
+        long start = System.currentTimeMillis();
+        List<EntityChunk> chunks = parseChunks(file, pool, chunk -> parseEntities(chunk, bytes -> {
+            return userStorage.insert(objectMapper.readValue(bytes, User.class)).getId();
+        }));
+        return publishCreated(file, chunks, start, id -> new UserEvent(EventType.CREATED, id));
+    }
+
+    private LoadReport loadLikes(Path file, ExecutorService pool) {
+        long start = System.currentTimeMillis();
+        EdgeChunk edges = EdgeChunk.merge(parseChunks(file, pool, BulkLoader::parseEdges));
+
+        long[] packed = new long[edges.size];
+        for (int i = 0; i < edges.size; i++) {
+            packed[i] = edges.second[i] << 32 | edges.first[i];
+        }
+        Arrays.parallelSort(packed);
+
+        LongLongHashMap addedByFilm = new LongLongHashMap(1024);
+        long accepted = 0;
+        long rejected = edges.rejected;
+        Lock lock = cascadeLock.exclusive();
+        lock.lock();
+        try {
+            List<Future<LikesPart>> futures = new ArrayList<>();
+            int from = 0;
+            for (int part = 1; part <= parallelism && from < packed.length; part++) {
+                int to = part == parallelism ? packed.length
+                        : userBoundary(packed, from, (int) ((long) part * packed.length / parallelism));
+                int rangeFrom = from;
+                futures.add(pool.submit(() -> applyLikes(packed, rangeFrom, to)));
+                from = to;
+            }
+            for (LikesPart part : await(futures)) {
+                accepted += part.accepted();
+                rejected += part.rejected();
+                part.addedByFilm().forEach(addedByFilm::addTo);
+            }
+        } finally {
+            lock.unlock();
+        }
+        publishLikeCounts(addedByFilm);
+        return new LoadReport(file.getFileName().toString(), accepted, rejected, System.currentTimeMillis() - start);
+    }
+
+    private LoadReport loadFriendships(Path file, ExecutorService pool) {
+        long start = System.currentTimeMillis();
+        EdgeChunk edges = EdgeChunk.merge(parseChunks(file, pool, BulkLoader::parseEdges));
+
+        long[] userIds = new long[edges.size];
+        long[] friendIds = new long[edges.size];
+        int accepted = 0;
+        long rejected = edges.rejected;
+        Set<Long> touchedUsers = new HashSet<>();
+        Lock lock = cascadeLock.exclusive();
+        lock.lock();
+        try {
+            for (int i = 0; i < edges.size; i++) {
+                long userId = edges.first[i];
+                long friendId = edges.second[i];
+                if (userId == friendId || userStorage.findById(userId).isEmpty()
+                        || userStorage.findById(friendId).isEmpty()) {
+                    rejected++;
+                    continue;
+                }
+                touchedUsers.add(userId);
+                touchedUsers.add(friendId);
+                userIds[accepted] = userId;
+                friendIds[accepted] = friendId;
+                accepted++;
+            }
+            friendshipStorage.addFriends(userIds, friendIds, accepted);
+        } finally {
+            lock.unlock();
+        }
+        touchedUsers.forEach(userId -> eventPublisher.publishEvent(new UserEvent(EventType.UPDATED, userId)));
+        return new LoadReport(file.getFileName().toString(), accepted, rejected, System.currentTimeMillis() - start);
+    }
+
+    private LikesPart applyLikes(long[] packed, int from, int to) {
+        long accepted = 0;
+        long rejected = 0;
+        LongLongHashMap addedByFilm = new LongLongHashMap(1024);
+        int i = from;
+        while (i < to) {
+            long userId = packed[i] >>> 32;
+            int runEnd = i;
+            while (runEnd < to && packed[runEnd] >>> 32 == userId) {
+                runEnd++;
+            }
+            if (userStorage.findById(userId).isEmpty()) {
+                rejected += runEnd - i;
+                i = runEnd;
+                continue;
+            }
+            for (int j = i; j < runEnd; j++) {
+                if (j > i && packed[j] == packed[j - 1]) {
+                    continue;
+                }
+                long filmId = packed[j] & ID_MASK;
+                if (filmStorage.findById(filmId).isEmpty()) {
+                    rejected++;
+                    continue;
+                }
+                if (likeStorage.addLike(filmId, userId)) {
+                    addedByFilm.addTo(filmId, 1);
+                }
+                accepted++;
+            }
+            i = runEnd;
+        }
+        return new LikesPart(accepted, rejected, addedByFilm);
+    }
+
+    /**
+     * Одно событие на всю загрузку со счётчиками по фильмам: слушатели обновляют производные индексы один
+     * раз на фильм, а не на каждую загруженную связь.
+     */
+    private void publishLikeCounts(LongLongHashMap addedByFilm) {
+        if (addedByFilm.size() == 0) {
+            return;
+        }
+        long[] filmIds = new long[addedByFilm.size()];
+        long[] added = new long[addedByFilm.size()];
+        int[] count = new int[1];
+        addedByFilm.forEach((filmId, likes) -> {
+            filmIds[count[0]] = filmId;
+            added[count[0]++] = likes;
+        });
+        eventPublisher.publishEvent(new LikeCountsEvent(filmIds, added));
+    }
+
+    private LoadReport publishCreated(Path file, List<EntityChunk> chunks, long start,
+                                      Function<Long, Object> event) {
+        long accepted = 0;
+        long rejected = 0;
+        for (EntityChunk chunk : chunks) {
+            for (int i = 0; i < chunk.ids.size(); i++) {
+                eventPublisher.publishEvent(event.apply(chunk.ids.get(i)));
+            }
+            accepted += chunk.ids.size();
+            rejected += chunk.rejected;
+        }
+        return new LoadReport(file.getFileName().toString(), accepted, rejected, System.currentTimeMillis() - start);
+    }
+
+    private <T> List<T> parseChunks(Path file, ExecutorService pool, Function<ByteBuffer, T> parser) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Future<T>> futures = new ArrayList<>();
+            for (MappedByteBuffer chunk : MappedChunks.split(channel, parallelism * CHUNKS_PER_THREAD)) {
+                futures.add(pool.submit(() -> parser.apply(chunk)));
+            }
+            return await(futures);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать файл " + file, e);
+        }
+    }
+
+    private static <T> List<T> await(List<Future<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Загрузка данных прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    private static EntityChunk parseEntities(ByteBuffer chunk, EntityInserter inserter) {
+        EntityChunk result = new EntityChunk(new LongArrayList(1024));
+        MappedChunks.forEachLine(chunk, (buffer, from, to) -> {
+            byte[] bytes = new byte[to - from];
+            buffer.get(from, bytes);
+            try {
+                result.ids.add(inserter.insert(bytes));
+            } catch (IOException | ValidationException e) {
+                log.debug("Строка отклонена при загрузке: {}", e.getMessage());
+                result.rejected++;
+            }
+        });
+        return result;
+    }
+
+    private static EdgeChunk parseEdges(ByteBuffer chunk) {
+        LongArrayList first = new LongArrayList(chunk.limit() / 8);
+        LongArrayList second = new LongArrayList(chunk.limit() / 8);
+        long[] rejected = new long[1];
+        MappedChunks.forEachLine(chunk, (buffer, from, to) -> {
+            if (Character.isLetter(buffer.get(from))) {
+                return;
+            }
+            int comma = from;
+            while (comma < to && buffer.get(comma) != ',') {
+                comma++;
+            }
+            long a = parseId(buffer, from, comma);
+            long b = parseId(buffer, comma + 1, to);
+            if (a < 0 || b < 0) {
+                rejected[0]++;
+                return;
+            }
+            first.add(a);
+            second.add(b);
+        });
+        return new EdgeChunk(first, second, rejected[0]);
+    }
+
+    private static long parseId(ByteBuffer buffer, int from, int to) {
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        while (to > from && buffer.get(to - 1) == ' ') {
+            to--;
+        }
+        if (from >= to) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return value == 0 ? -1 : value;
+    }
+
+    private static int userBoundary(long[] packed, int from, int index) {
+        int boundary = Math.max(from, index);
+        while (boundary > from && boundary < packed.length
+                && packed[boundary] >>> 32 == packed[boundary - 1] >>> 32) {
+            boundary++;
+        }
+        return boundary;
+    }
+
+    @FunctionalInterface
+    private interface EntityInserter {
+        Long insert(byte[] bytes) throws IOException;
+    }
+
+    private static final class EntityChunk {
+        private final LongArrayList ids;
+        private long rejected;
+
+        private EntityChunk(LongArrayList ids) {
+            this.ids = ids;
+        }
+    }
+
+    private record LikesPart(long accepted, long rejected, LongLongHashMap addedByFilm) {
+    }
+
+    private record EdgeChunk(long[] first, long[] second, int size, long rejected) {
+
+        EdgeChunk(LongArrayList first, LongArrayList second, long rejected) {
+            this(toArray(first), toArray(second), first.size(), rejected);
+        }
+
+        static EdgeChunk merge(List<EdgeChunk> chunks) {
+            int size = 0;
+            long rejected = 0;
+            for (EdgeChunk chunk : chunks) {
+                size += chunk.size;
+                rejected += chunk.rejected;
+            }
+            long[] first = new long[size];
+            long[] second = new long[size];
+            int offset = 0;
+            for (EdgeChunk chunk : chunks) {
+                System.arraycopy(chunk.first, 0, first, offset, chunk.size);
+                System.arraycopy(chunk.second, 0, second, offset, chunk.size);
+                offset += chunk.size;
+            }
+            return new EdgeChunk(first, second, size, rejected);
+        }
+
+        private static long[] toArray(LongArrayList list) {
+            long[] result = new long[list.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = list.get(i);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.loader;
+
+public record LoadReport(String source, long accepted, long rejected, long millis) {
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.loader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+final class MappedChunks {
+
+    private static final int PROBE_SIZE = 8192;
+
+    private MappedChunks() {
+    }
+
+    static List<MappedByteBuffer> split(FileChannel channel, int parts) throws IOException {
+        long size = channel.size();
+        List<MappedByteBuffer> chunks = new ArrayList<>(parts);
+        long chunkSize = Math.max(1, Math.min(Integer.MAX_VALUE, (size + parts - 1) / parts));
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            start = end;
+        }
+        return chunks;
+    }
+
+    static void forEachLine(ByteBuffer chunk, LineHandler handler) {
+        int limit = chunk.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || chunk.get(i) == '\n') {
+                int lineEnd = i;
+                if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    handler.line(chunk, lineStart, lineEnd);
+                }
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    @FunctionalInterface
+    interface LineHandler {
+        void line(ByteBuffer chunk, int from, int to);
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record BatchResult<T>(List<T> items, List<Long> missing) {
+
+    public static final int MAX_IDS = 10_000;
+
+    public static long[] requestIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ValidationException("Список идентификаторов не может быть пустым");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new ValidationException("Нельзя запросить больше " + MAX_IDS + " идентификаторов за раз");
+        }
+        long[] result = new long[ids.size()];
+        for (int i = 0; i < result.length; i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                throw new ValidationException("Идентификатор не может быть пустым");
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    public static <T> BatchResult<T> of(long[] ids, List<T> resolved) {
+        List<T> items = new ArrayList<>(ids.length);
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            T item = resolved.get(i);
+            if (item == null) {
+                missing.add(ids[i]);
+            } else {
+                items.add(item);
+            }
+        }
+        return new BatchResult<>(items, missing);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public record CatalogStats(DistinctLikers distinctLikers,
+                           LikeDistribution likeCountDistribution,
+                           HeavyHitters heavyHitters) {
+
+    public record DistinctLikers(List<DailyCount> days, double relativeStandardError) {
+    }
+
+    public record DailyCount(LocalDate date, long estimate) {
+    }
+
+    public record LikeDistribution(long films, long p50, long p90, long p99, long max, double relativeAccuracy) {
+    }
+
+    public record HeavyHitters(Map<Long, List<FilmCount>> byGenre, double epsilon, double delta) {
+    }
+
+    public record FilmCount(long filmId, long estimatedLikes, long maxOverestimate, long maxUnderestimate) {
+    }
+}
@@ -1,20 +1,101 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.yandex.practicum.filmorate.config.IdArraySerializer;
+import ru.yandex.practicum.filmorate.config.JacksonConfig;
+import ru.yandex.practicum.filmorate.util.LongSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonFilter(JacksonConfig.PROJECTION_FILTER)
+@JsonPropertyOrder({"id", "name", "description", "releaseDate", "duration", "likes", "genres", "mpa", "likeCount"})
 public class Film {
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    @EqualsAndHashCode.Include
     private Long id;
     private String name;
     private String description;
-    private LocalDate releaseDate;
-    private Integer duration;
-    private Set<Long> likes = new HashSet<>();
-    private Set<Genre> genres = new HashSet<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int releaseEpochDay = ABSENT;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int duration = ABSENT;
+    @ToString.Exclude
+    @JsonSerialize(using = IdArraySerializer.class)
+    private Set<Long> likes = new LongSet();
+    @JsonIgnore
+    @ToString.Exclude
+    private long genreMask;
     private MpaRating mpa;
+    @JsonIgnore
+    private long version;
+
+    public Film copy() {
+        Film copy = new Film();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.releaseEpochDay = releaseEpochDay;
+        copy.duration = duration;
+        copy.likes = likes;
+        copy.genreMask = genreMask;
+        copy.mpa = mpa;
+        copy.version = version;
+        return copy;
+    }
+
+    public void setName(String name) {
+        this.name = name == null ? null : name.intern();
+    }
+
+    @ToString.Include
+    public LocalDate getReleaseDate() {
+        return releaseEpochDay == ABSENT ? null : LocalDate.ofEpochDay(releaseEpochDay);
+    }
+
+    public void setReleaseDate(LocalDate releaseDate) {
+        this.releaseEpochDay = releaseDate == null ? ABSENT : Math.toIntExact(releaseDate.toEpochDay());
+    }
+
+    @ToString.Include
+    public Integer getDuration() {
+        return duration == ABSENT ? null : duration;
+    }
+
+    public void setDuration(Integer duration) {
+        this.duration = duration == null ? ABSENT : duration;
+    }
+
+    @ToString.Include
+    public List<Genre> getGenres() {
+        return GenreDictionary.fromMask(genreMask);
+    }
+
+    public void setGenres(Collection<Genre> genres) {
+        this.genreMask = genres == null ? 0 : GenreDictionary.maskOf(genres);
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public int getLikeCount() {
+        return likes.size();
+    }
 }
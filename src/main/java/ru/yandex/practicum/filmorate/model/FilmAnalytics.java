@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.List;
+import java.util.Map;
+
+public record FilmAnalytics(long films,
+                            long totalLikes,
+                            List<MpaDuration> averageDurationByMpa,
+                            Map<Integer, Long> filmsByReleaseYear,
+                            Map<Long, Long> likesByGenre) {
+
+    public record MpaDuration(MpaRating mpa, long films, double averageDuration) {
+    }
+}
@@ -1,9 +1,4 @@
 package ru.yandex.practicum.filmorate.model;
 
-import lombok.Data;
-
-@Data
-public class Genre {
-    private Long id;
-    private String name;
+public record Genre(long id, String name) {
 }
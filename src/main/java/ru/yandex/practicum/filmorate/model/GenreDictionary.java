@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Неизменяемый справочник жанров. Жанры фильма хранятся битовой маской: бит с номером id означает жанр,
+ * бит 0 (id начинаются с 1) отмечает неизвестный жанр во входных данных. Списки жанров для всех масок
+ * построены заранее, поэтому при сериализации фильма ничего не выделяется.
+ */
+public final class GenreDictionary {
+
+    public static final long UNKNOWN = 1L;
+
+    private static final List<Genre> GENRES = List.of(
+            new Genre(1, "Комедия"),
+            new Genre(2, "Драма"),
+            new Genre(3, "Мультфильм"),
+            new Genre(4, "Триллер"),
+            new Genre(5, "Документальный"),
+            new Genre(6, "Боевик"));
+    private static final long KNOWN = (1L << (GENRES.size() + 1)) - 2;
+    private static final List<List<Genre>> BY_MASK = subsets();
+
+    private GenreDictionary() {
+    }
+
+    public static List<Genre> all() {
+        return GENRES;
+    }
+
+    public static Optional<Genre> findById(long id) {
+        return bit(id) == UNKNOWN ? Optional.empty() : Optional.of(GENRES.get((int) id - 1));
+    }
+
+    public static long bit(long id) {
+        return id >= 1 && id <= GENRES.size() ? 1L << id : UNKNOWN;
+    }
+
+    public static long maskOf(Collection<Genre> genres) {
+        long mask = 0;
+        for (Genre genre : genres) {
+            mask |= genre == null ? UNKNOWN : bit(genre.id());
+        }
+        return mask;
+    }
+
+    public static List<Genre> fromMask(long mask) {
+        return BY_MASK.get((int) ((mask & KNOWN) >>> 1));
+    }
+
+    public static boolean hasUnknown(long mask) {
+        return (mask & ~KNOWN) != 0;
+    }
+
+    private static List<List<Genre>> subsets() {
+        List<List<Genre>> subsets = new ArrayList<>(1 << GENRES.size());
+        for (int subset = 0; subset < 1 << GENRES.size(); subset++) {
+            List<Genre> genres = new ArrayList<>(Integer.bitCount(subset));
+            for (int i = 0; i < GENRES.size(); i++) {
+                if ((subset & 1 << i) != 0) {
+                    genres.add(GENRES.get(i));
+                }
+            }
+            subsets.add(List.copyOf(genres));
+        }
+        return List.copyOf(subsets);
+    }
+}
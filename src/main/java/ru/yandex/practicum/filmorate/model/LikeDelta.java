@@ -0,0 +1,4 @@
+package ru.yandex.practicum.filmorate.model;
+
+public record LikeDelta(long filmId, int likeCount, Integer rank, Integer previousRank) {
+}
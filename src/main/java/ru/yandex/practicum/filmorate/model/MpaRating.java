@@ -1,9 +1,60 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
 public enum MpaRating {
-    G,
-    PG,
-    PG_13,
-    R,
-    NC_17
+    G(1, "G"),
+    PG(2, "PG"),
+    PG_13(3, "PG-13"),
+    R(4, "R"),
+    NC_17(5, "NC-17");
+
+    private static final List<Mpa> DICTIONARY = Arrays.stream(values())
+            .map(rating -> new Mpa(rating.id, rating.title))
+            .toList();
+
+    private final int id;
+    private final String title;
+
+    public static List<Mpa> dictionary() {
+        return DICTIONARY;
+    }
+
+    public static Optional<Mpa> findById(int id) {
+        return id >= 1 && id <= DICTIONARY.size() ? Optional.of(DICTIONARY.get(id - 1)) : Optional.empty();
+    }
+
+    /**
+     * Рейтинг из JSON фильма: объект {@code {"id": ...}}, как у жанров; имя константы принимается для
+     * совместимости со старыми клиентами.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static MpaRating fromJson(JsonNode node) {
+        if (node.isTextual()) {
+            for (MpaRating rating : values()) {
+                if (rating.name().equals(node.textValue())) {
+                    return rating;
+                }
+            }
+        } else if (node.path("id").canConvertToInt() && findById(node.path("id").intValue()).isPresent()) {
+            return values()[node.path("id").intValue() - 1];
+        }
+        throw new ValidationException("Указан несуществующий рейтинг MPA");
+    }
+
+    @JsonValue
+    public Mpa toMpa() {
+        return DICTIONARY.get(ordinal());
+    }
 }
@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.model;
+
+public record ReplicationStatus(String role, long epoch, long appliedSeq, long headSeq, long lag, boolean connected,
+                                int followers) {
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.Duration;
+
+public enum TrendingWindow {
+    HOUR("1h", 60, Duration.ofMinutes(1)),
+    DAY("24h", 48, Duration.ofMinutes(30)),
+    WEEK("7d", 56, Duration.ofHours(3));
+
+    private final String param;
+    private final int buckets;
+    private final Duration bucketLength;
+
+    TrendingWindow(String param, int buckets, Duration bucketLength) {
+        this.param = param;
+        this.buckets = buckets;
+        this.bucketLength = bucketLength;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public Duration getBucketLength() {
+        return bucketLength;
+    }
+
+    public static TrendingWindow fromParam(String param) {
+        for (TrendingWindow window : values()) {
+            if (window.param.equals(param)) {
+                return window;
+            }
+        }
+        throw new ValidationException("Окно должно быть одним из значений: 1h, 24h, 7d");
+    }
+}
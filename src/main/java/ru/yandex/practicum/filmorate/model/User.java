@@ -1,19 +1,66 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import ru.yandex.practicum.filmorate.config.IdArraySerializer;
+import ru.yandex.practicum.filmorate.config.JacksonConfig;
+import ru.yandex.practicum.filmorate.util.LongSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 @Data
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonFilter(JacksonConfig.PROJECTION_FILTER)
+@JsonPropertyOrder({"id", "email", "login", "name", "birthday", "friends"})
 public class User {
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    @EqualsAndHashCode.Include
     private Long id;
     private String email;
     private String login;
     private String name;
-    private LocalDate birthday;
-    private Set<Long> friends = new HashSet<>();
-    private Set<Friendship> friendships = new HashSet<>();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int birthdayEpochDay = ABSENT;
+    @ToString.Exclude
+    @JsonSerialize(using = IdArraySerializer.class)
+    private Set<Long> friends = new LongSet();
+    @JsonIgnore
+    private long version;
+
+    public User copy() {
+        User copy = new User();
+        copy.id = id;
+        copy.email = email;
+        copy.login = login;
+        copy.name = name;
+        copy.birthdayEpochDay = birthdayEpochDay;
+        copy.friends = friends;
+        copy.version = version;
+        return copy;
+    }
+
+    public void setName(String name) {
+        this.name = name == null ? null : name.intern();
+    }
+
+    @ToString.Include
+    public LocalDate getBirthday() {
+        return birthdayEpochDay == ABSENT ? null : LocalDate.ofEpochDay(birthdayEpochDay);
+    }
+
+    public void setBirthday(LocalDate birthday) {
+        this.birthdayEpochDay = birthday == null ? ABSENT : Math.toIntExact(birthday.toEpochDay());
+    }
 }
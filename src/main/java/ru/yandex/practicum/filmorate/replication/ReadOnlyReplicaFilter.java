@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "follower")
+public class ReadOnlyReplicaFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"error\":\"Узел только для чтения\",\"message\":\"Изменения принимает ведущий узел\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!path.startsWith("/films") && !path.startsWith("/users")) {
+            return true;
+        }
+        return HttpMethod.GET.matches(request.getMethod())
+                || (HttpMethod.POST.matches(request.getMethod()) && path.endsWith("/batch"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        log.debug("Запрос {} {} отклонён: узел является репликой", request.getMethod(), request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
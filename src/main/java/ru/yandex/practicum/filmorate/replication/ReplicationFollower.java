@@ -0,0 +1,306 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Реплика: читает журнал ведущего узла, применяет кадры пакетами через сервисы, чтобы производные
+ * индексы и кэши обновлялись так же, как при обычных запросах, и отдаёт данные на чтение.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "follower")
+public class ReplicationFollower implements MeterBinder {
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String leaderHost;
+    private final int leaderPort;
+    private final int batchSize;
+    private final long maxLag;
+    private final long reconnectMs;
+
+    private final LongAdder appliedFrames = new LongAdder();
+    private final LongAdder snapshots = new LongAdder();
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile Socket socket;
+    private volatile long epoch;
+    private volatile long appliedSeq;
+    private volatile long leaderHead;
+    private long leaderEpoch;
+    private boolean inSnapshot;
+    private Thread worker;
+
+    public ReplicationFollower(FilmService filmService, UserService userService, FilmStorage filmStorage,
+                               UserStorage userStorage, ApplicationEventPublisher eventPublisher,
+                               ObjectMapper objectMapper,
+                               @Value("${filmorate.replication.leader-host:localhost}") String leaderHost,
+                               @Value("${filmorate.replication.leader-port:7070}") int leaderPort,
+                               @Value("${filmorate.replication.batch-size:512}") int batchSize,
+                               @Value("${filmorate.replication.max-lag:100000}") long maxLag,
+                               @Value("${filmorate.replication.reconnect-ms:1000}") long reconnectMs) {
+        this.filmService = filmService;
+        this.userService = userService;
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.leaderHost = leaderHost;
+        this.leaderPort = leaderPort;
+        this.batchSize = batchSize;
+        this.maxLag = maxLag;
+        this.reconnectMs = reconnectMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = Thread.ofPlatform().name("replication-follower").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+        worker.interrupt();
+        worker.join(reconnectMs);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    public long getLeaderHead() {
+        return leaderHead;
+    }
+
+    public long getLag() {
+        return Math.max(0, leaderHead - appliedSeq);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.replication.lag", this, ReplicationFollower::getLag)
+                .description("Отставание реплики от ведущего узла в кадрах журнала")
+                .register(registry);
+        Gauge.builder("filmorate.replication.applied", this, ReplicationFollower::getAppliedSeq)
+                .description("Последняя применённая позиция журнала")
+                .register(registry);
+        FunctionCounter.builder("filmorate.replication.frames", appliedFrames, LongAdder::sum)
+                .description("Применённые кадры журнала")
+                .register(registry);
+        FunctionCounter.builder("filmorate.replication.snapshots", snapshots, LongAdder::sum)
+                .description("Загруженные снимки ведущего узла")
+                .register(registry);
+    }
+
+    private void run() {
+        while (running) {
+            try (Socket current = new Socket(leaderHost, leaderPort)) {
+                socket = current;
+                session(current);
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    log.warn("Соединение с ведущим узлом {}:{} потеряно: {}", leaderHost, leaderPort, e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            if (running) {
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void session(Socket current) throws IOException {
+        OutputStream out = current.getOutputStream();
+        out.write((epoch + " " + appliedSeq + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        connected = true;
+        log.info("Подключено к ведущему узлу {}:{}, позиция {}", leaderHost, leaderPort, appliedSeq);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(current.getInputStream(),
+                StandardCharsets.UTF_8), 1 << 16);
+        List<ReplicationFrame> batch = new ArrayList<>(batchSize);
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            batch.add(objectMapper.readValue(line, ReplicationFrame.class));
+            while (batch.size() < batchSize && reader.ready() && (line = reader.readLine()) != null) {
+                batch.add(objectMapper.readValue(line, ReplicationFrame.class));
+            }
+            apply(batch);
+            batch.clear();
+            if (!inSnapshot && getLag() > maxLag) {
+                log.warn("Отставание реплики {} превысило {}, запрашиваем снимок", getLag(), maxLag);
+                epoch = 0;
+                return;
+            }
+        }
+    }
+
+    private void apply(List<ReplicationFrame> batch) {
+        for (ReplicationFrame frame : batch) {
+            switch (frame.op()) {
+                case HELLO -> {
+                    leaderEpoch = frame.epoch();
+                    leaderHead = frame.head();
+                }
+                case HEARTBEAT -> leaderHead = Math.max(leaderHead, frame.head());
+                case SNAPSHOT_BEGIN -> beginSnapshot(frame);
+                case SNAPSHOT_END -> {
+                    inSnapshot = false;
+                    appliedSeq = frame.seq();
+                    epoch = leaderEpoch;
+                    log.info("Снимок ведущего узла загружен, позиция {}", appliedSeq);
+                }
+                default -> {
+                    applyChange(frame);
+                    if (!inSnapshot) {
+                        appliedSeq = frame.seq();
+                    }
+                }
+            }
+        }
+        appliedFrames.add(batch.size());
+        log.trace("Применён пакет из {} кадров, позиция {}, отставание {}", batch.size(), appliedSeq, getLag());
+    }
+
+    private void beginSnapshot(ReplicationFrame frame) {
+        log.info("Загрузка снимка ведущего узла, позиция {}", frame.seq());
+        inSnapshot = true;
+        epoch = 0;
+        leaderHead = Math.max(leaderHead, frame.head());
+        snapshots.increment();
+        filmService.clearAllFilms();
+        userService.clearAllUsers();
+    }
+
+    private void applyChange(ReplicationFrame frame) {
+        try {
+            switch (frame.op()) {
+                case FILM -> upsertFilm(frame.film(), frame.version());
+                case FILM_DELETED -> filmService.deleteFilm(frame.id());
+                case FILMS_CLEARED -> filmService.clearAllFilms();
+                case USER -> upsertUser(frame.user(), frame.version());
+                case USER_DELETED -> userService.deleteUser(frame.id());
+                case USERS_CLEARED -> userService.clearAllUsers();
+                case LIKE -> setLike(frame.id(), frame.otherId(), frame.present());
+                case FRIEND -> setFriend(frame.id(), frame.otherId(), frame.present());
+                default -> log.warn("Неизвестный кадр репликации: {}", frame.op());
+            }
+        } catch (NotFoundException e) {
+            log.trace("Кадр {} {} пропущен: {}", frame.seq(), frame.op(), e.getMessage());
+        }
+    }
+
+    private void upsertFilm(Film film, Long version) {
+        Set<Long> likes = film.getLikes();
+        film.setVersion(version == null ? 0 : version);
+        if (filmStorage.findById(film.getId()).isPresent()) {
+            filmService.replicate(film);
+        } else {
+            filmStorage.insert(film);
+            eventPublisher.publishEvent(new FilmEvent(EventType.CREATED, film.getId()));
+        }
+        if (!inSnapshot) {
+            Set<Long> current = new HashSet<>(filmStorage.findById(film.getId())
+                    .map(Film::getLikes)
+                    .orElse(Set.of()));
+            likes.stream().filter(id -> !current.contains(id)).forEach(id -> setLike(film.getId(), id, true));
+            current.stream().filter(id -> !likes.contains(id)).forEach(id -> setLike(film.getId(), id, false));
+        }
+    }
+
+    private void upsertUser(User user, Long version) {
+        Set<Long> friends = user.getFriends();
+        user.setVersion(version == null ? 0 : version);
+        if (userStorage.findById(user.getId()).isPresent()) {
+            userService.replicate(user);
+        } else {
+            userStorage.insert(user);
+            eventPublisher.publishEvent(new UserEvent(EventType.CREATED, user.getId()));
+        }
+        if (!inSnapshot) {
+            Set<Long> current = new HashSet<>(userStorage.findById(user.getId())
+                    .map(User::getFriends)
+                    .orElse(Set.of()));
+            friends.stream().filter(id -> !current.contains(id)).forEach(id -> setFriend(user.getId(), id, true));
+            current.stream().filter(id -> !friends.contains(id)).forEach(id -> setFriend(user.getId(), id, false));
+        }
+    }
+
+    private void setLike(Long filmId, Long userId, boolean present) {
+        try {
+            if (present) {
+                filmService.addLike(filmId, userId);
+            } else {
+                filmService.removeLike(filmId, userId);
+            }
+        } catch (NotFoundException e) {
+            log.trace("Лайк фильму id={} от пользователя id={} пропущен: {}", filmId, userId, e.getMessage());
+        }
+    }
+
+    private void setFriend(Long userId, Long friendId, boolean present) {
+        try {
+            if (present) {
+                userService.addFriend(userId, friendId);
+            } else {
+                userService.removeFriend(userId, friendId);
+            }
+        } catch (NotFoundException e) {
+            log.trace("Дружба id={} -> id={} пропущена: {}", userId, friendId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Кадр журнала репликации. Версия сущности в её JSON не попадает, поэтому передаётся отдельным полем
+ * {@code version} и применяется на реплике как есть.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReplicationFrame(long seq, Op op, Long id, Long otherId, Boolean present, Film film, User user,
+                               Long version, Long epoch, Long head) {
+
+    public enum Op {
+        HELLO,
+        HEARTBEAT,
+        SNAPSHOT_BEGIN,
+        SNAPSHOT_END,
+        FILM,
+        FILM_DELETED,
+        FILMS_CLEARED,
+        USER,
+        USER_DELETED,
+        USERS_CLEARED,
+        LIKE,
+        FRIEND
+    }
+
+    static ReplicationFrame control(Op op, long seq, long epoch, long head) {
+        return new ReplicationFrame(seq, op, null, null, null, null, null, null, epoch, head);
+    }
+
+    static ReplicationFrame film(long seq, Film film) {
+        return new ReplicationFrame(seq, Op.FILM, film.getId(), null, null, film, null, film.getVersion(), null,
+                null);
+    }
+
+    static ReplicationFrame user(long seq, User user) {
+        return new ReplicationFrame(seq, Op.USER, user.getId(), null, null, null, user, user.getVersion(), null,
+                null);
+    }
+
+    static ReplicationFrame edge(long seq, Op op, Long id, Long otherId, boolean present) {
+        return new ReplicationFrame(seq, op, id, otherId, present, null, null, null, null, null);
+    }
+
+    static ReplicationFrame removal(long seq, Op op, Long id) {
+        return new ReplicationFrame(seq, op, id, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,210 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.FriendshipEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Упорядоченный журнал изменений ведущего узла. Кадр отражает состояние сущности или связи на момент
+ * записи в журнал, поэтому последовательное применение кадров сходится к состоянию ведущего,
+ * даже если события публикуются из разных потоков не в порядке изменений.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "leader")
+public class ReplicationLog {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final String[] frames;
+    private long head;
+
+    public ReplicationLog(FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper,
+                          @Value("${filmorate.replication.log-size:65536}") int logSize) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.objectMapper = objectMapper;
+        this.frames = new String[logSize];
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public synchronized long getHead() {
+        return head;
+    }
+
+    @EventListener
+    public void onFilmEvent(FilmEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> appendFilm(event.filmId());
+            case DELETED -> append(ReplicationFrame.Op.FILM_DELETED, event.filmId());
+            case CLEARED -> append(ReplicationFrame.Op.FILMS_CLEARED, null);
+        }
+    }
+
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (event.type() == EventType.CREATED || event.type() == EventType.UPDATED) {
+            appendUser(event.userId());
+        } else if (event.type() == EventType.DELETED) {
+            append(ReplicationFrame.Op.USER_DELETED, event.userId());
+        } else {
+            append(ReplicationFrame.Op.USERS_CLEARED, null);
+        }
+    }
+
+    @EventListener
+    public void onLikesEvent(LikesEvent event) {
+        for (LikesEvent.LikeChange change : event.changes()) {
+            appendLike(change.filmId(), change.userId());
+        }
+    }
+
+    // Кадр фильма несёт его лайки, и реплика сверяет их с собой: один кадр на фильм вместо кадра на связь
+    @EventListener
+    public void onLikeCountsEvent(LikeCountsEvent event) {
+        for (long filmId : event.filmIds()) {
+            appendFilm(filmId);
+        }
+    }
+
+    @EventListener
+    public void onFriendshipEvent(FriendshipEvent event) {
+        appendFriend(event.userId(), event.friendId());
+    }
+
+    /**
+     * Возвращает кадры после {@code seq}, дожидаясь новых не дольше {@code timeoutMs}.
+     * Пустой список означает, что новых кадров нет, {@code null} — что нужные кадры уже вытеснены из журнала.
+     */
+    public synchronized List<String> framesAfter(long seq, int maxFrames, long timeoutMs)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (head <= seq) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return List.of();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        if (!isRetained(seq + 1)) {
+            return null;
+        }
+        long last = Math.min(head, seq + maxFrames);
+        List<String> result = new ArrayList<>((int) (last - seq));
+        for (long s = seq + 1; s <= last; s++) {
+            result.add(frames[slot(s)]);
+        }
+        return result;
+    }
+
+    public synchronized boolean isRetained(long seq) {
+        return seq > head - frames.length;
+    }
+
+    public synchronized String heartbeat() {
+        return toJson(ReplicationFrame.control(ReplicationFrame.Op.HEARTBEAT, head, epoch, head));
+    }
+
+    public String hello() {
+        return toJson(ReplicationFrame.control(ReplicationFrame.Op.HELLO, 0, epoch, getHead()));
+    }
+
+    /**
+     * Снимок всех сущностей и связей. Журнал блокируется на время сборки, поэтому изменения, ещё не
+     * попавшие в журнал, будут переданы кадрами после снимка и применятся повторно без вреда.
+     */
+    public synchronized Snapshot snapshot() {
+        List<String> result = new ArrayList<>();
+        result.add(toJson(ReplicationFrame.control(ReplicationFrame.Op.SNAPSHOT_BEGIN, head, epoch, head)));
+        for (User user : userStorage.findAll()) {
+            result.add(toJson(ReplicationFrame.user(head, user)));
+        }
+        for (Film film : filmStorage.findAll()) {
+            result.add(toJson(ReplicationFrame.film(head, film)));
+        }
+        for (Film film : filmStorage.findAll()) {
+            for (Long userId : film.getLikes()) {
+                result.add(toJson(ReplicationFrame.edge(head, ReplicationFrame.Op.LIKE, film.getId(), userId, true)));
+            }
+        }
+        for (User user : userStorage.findAll()) {
+            for (Long friendId : user.getFriends()) {
+                result.add(toJson(ReplicationFrame.edge(head, ReplicationFrame.Op.FRIEND, user.getId(), friendId,
+                        true)));
+            }
+        }
+        result.add(toJson(ReplicationFrame.control(ReplicationFrame.Op.SNAPSHOT_END, head, epoch, head)));
+        log.info("Собран снимок для реплики: {} кадров, позиция {}", result.size(), head);
+        return new Snapshot(head, result);
+    }
+
+    private synchronized void appendFilm(Long filmId) {
+        filmStorage.findById(filmId).ifPresent(film -> publish(ReplicationFrame.film(head + 1, film)));
+    }
+
+    private synchronized void appendUser(Long userId) {
+        userStorage.findById(userId).ifPresent(user -> publish(ReplicationFrame.user(head + 1, user)));
+    }
+
+    private synchronized void appendLike(Long filmId, Long userId) {
+        boolean present = filmStorage.findById(filmId).map(film -> film.getLikes().contains(userId)).orElse(false);
+        publish(ReplicationFrame.edge(head + 1, ReplicationFrame.Op.LIKE, filmId, userId, present));
+    }
+
+    private synchronized void appendFriend(Long userId, Long friendId) {
+        boolean present = userStorage.findById(userId).map(user -> user.getFriends().contains(friendId))
+                .orElse(false);
+        publish(ReplicationFrame.edge(head + 1, ReplicationFrame.Op.FRIEND, userId, friendId, present));
+    }
+
+    private synchronized void append(ReplicationFrame.Op op, Long id) {
+        publish(ReplicationFrame.removal(head + 1, op, id));
+    }
+
+    private void publish(ReplicationFrame frame) {
+        frames[slot(frame.seq())] = toJson(frame);
+        head = frame.seq();
+        notifyAll();
+        log.trace("В журнал репликации записан кадр {} {}", frame.seq(), frame.op());
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % frames.length);
+    }
+
+    private String toJson(ReplicationFrame frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record Snapshot(long seq, List<String> frames) {
+    }
+}
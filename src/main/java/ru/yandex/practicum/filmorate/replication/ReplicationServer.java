@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "leader")
+public class ReplicationServer implements MeterBinder {
+
+    private final ReplicationLog replicationLog;
+    private final int port;
+    private final int batchSize;
+    private final long heartbeatMs;
+
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+
+    public ReplicationServer(ReplicationLog replicationLog,
+                             @Value("${filmorate.replication.port:7070}") int port,
+                             @Value("${filmorate.replication.batch-size:512}") int batchSize,
+                             @Value("${filmorate.replication.heartbeat-ms:500}") long heartbeatMs) {
+        this.replicationLog = replicationLog;
+        this.port = port;
+        this.batchSize = batchSize;
+        this.heartbeatMs = heartbeatMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Thread.ofPlatform().name("replication-acceptor").daemon().start(this::accept);
+        log.info("Ведущий узел принимает реплики на порту {}", getLocalPort());
+    }
+
+    public int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        serverSocket.close();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.replication.followers", followers, Set::size)
+                .description("Подключённые реплики")
+                .register(registry);
+        Gauge.builder("filmorate.replication.head", replicationLog, ReplicationLog::getHead)
+                .description("Последняя позиция журнала репликации")
+                .register(registry);
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                followers.add(socket);
+                Thread.ofVirtual().name("replication-follower-" + socket.getPort()).start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Ошибка приёма подключения реплики: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String[] handshake = String.valueOf(reader.readLine()).trim().split(" ");
+            long epoch = Long.parseLong(handshake[0]);
+            long position = Long.parseLong(handshake[1]);
+            log.info("Подключилась реплика {}: эпоха {}, позиция {}", socket.getRemoteSocketAddress(), epoch, position);
+
+            write(writer, List.of(replicationLog.hello()));
+            if (epoch != replicationLog.getEpoch() || !replicationLog.isRetained(position + 1)) {
+                position = sendSnapshot(writer);
+            }
+            while (!socket.isClosed()) {
+                List<String> frames = replicationLog.framesAfter(position, batchSize, heartbeatMs);
+                if (frames == null) {
+                    log.warn("Реплика {} отстала от журнала, отправляем снимок", socket.getRemoteSocketAddress());
+                    position = sendSnapshot(writer);
+                    continue;
+                }
+                position += frames.size();
+                write(writer, frames);
+                write(writer, List.of(replicationLog.heartbeat()));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.info("Реплика {} отключилась: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    private long sendSnapshot(Writer writer) throws IOException {
+        ReplicationLog.Snapshot snapshot = replicationLog.snapshot();
+        write(writer, snapshot.frames());
+        return snapshot.seq();
+    }
+
+    private void write(Writer writer, List<String> frames) throws IOException {
+        for (String frame : frames) {
+            writer.write(frame);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class CascadeLock {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public Lock shared() {
+        return lock.readLock();
+    }
+
+    public Lock exclusive() {
+        return lock.writeLock();
+    }
+
+    /**
+     * Захватывает исключительную блокировку для фоновой работы без ожидания. Отказывает, если текущий
+     * поток уже находится внутри каскадной операции и может держать ссылки на изменяемые сущности.
+     */
+    public boolean tryExclusiveIdle() {
+        return lock.getReadHoldCount() == 0 && !lock.isWriteLockedByCurrentThread() && lock.writeLock().tryLock();
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.GenreDictionary;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.List;
+
+@Slf4j
+@Service
+public class DictionaryService {
+
+    public List<Genre> getGenres() {
+        log.debug("Запрос справочника жанров");
+        return GenreDictionary.all();
+    }
+
+    public Genre getGenre(long id) {
+        log.debug("Запрос жанра с id={}", id);
+        return GenreDictionary.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Жанр с id={} не найден", id);
+                    return new NotFoundException("Жанр с id=" + id + " не найден");
+                });
+    }
+
+    public List<Mpa> getMpaRatings() {
+        log.debug("Запрос справочника рейтингов MPA");
+        return MpaRating.dictionary();
+    }
+
+    public Mpa getMpa(int id) {
+        log.debug("Запрос рейтинга MPA с id={}", id);
+        return MpaRating.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Рейтинг MPA с id={} не найден", id);
+                    return new NotFoundException("Рейтинг MPA с id=" + id + " не найден");
+                });
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.analytics.FilmColumns;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmAnalytics;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Service
+public class FilmAnalyticsService {
+
+    private static final MpaRating[] MPA_RATINGS = MpaRating.values();
+
+    private final FilmStorage filmStorage;
+    private final int chunkSize;
+    private final FilmColumns columns = new FilmColumns(MPA_RATINGS.length);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FilmAnalyticsService(FilmStorage filmStorage,
+                                @Value("${filmorate.analytics.chunk-size:65536}") int chunkSize) {
+        this.filmStorage = filmStorage;
+        this.chunkSize = chunkSize;
+    }
+
+    public FilmAnalytics getAnalytics() {
+        log.debug("Запрос аналитики по фильмам");
+        FilmColumns.Aggregate aggregate;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            aggregate = columns.scan(chunkSize);
+        } finally {
+            readLock.unlock();
+        }
+
+        List<FilmAnalytics.MpaDuration> byMpa = new ArrayList<>(MPA_RATINGS.length + 1);
+        for (int ordinal = FilmColumns.NO_MPA; ordinal < MPA_RATINGS.length; ordinal++) {
+            long films = aggregate.mpaFilms(ordinal);
+            if (films > 0) {
+                byMpa.add(new FilmAnalytics.MpaDuration(ordinal == FilmColumns.NO_MPA ? null : MPA_RATINGS[ordinal],
+                        films, (double) aggregate.mpaDurationSum(ordinal) / films));
+            }
+        }
+        Map<Integer, Long> byYear = new TreeMap<>();
+        aggregate.forEachYear((year, films) -> byYear.put((int) year, films));
+        Map<Long, Long> byGenre = new LinkedHashMap<>();
+        for (int bit = 0; bit < FilmColumns.GENRE_BITS; bit++) {
+            if (aggregate.likesForGenre(bit) > 0) {
+                byGenre.put((long) bit, aggregate.likesForGenre(bit));
+            }
+        }
+        return new FilmAnalytics(aggregate.films(), aggregate.totalLikes(), byMpa, byYear, byGenre);
+    }
+
+    @EventListener
+    public void onFilmEvent(FilmEvent event) {
+        if (event.type() == EventType.CLEARED) {
+            write(columns::clear);
+        } else if (event.type() == EventType.DELETED) {
+            write(() -> columns.remove(event.filmId()));
+        } else {
+            write(() -> filmStorage.findById(event.filmId())
+                    .ifPresentOrElse(this::upsert, () -> columns.remove(event.filmId())));
+        }
+    }
+
+    @EventListener
+    public void onLikesEvent(LikesEvent event) {
+        write(() -> {
+            for (LikesEvent.LikeChange change : event.changes()) {
+                filmStorage.findById(change.filmId())
+                        .ifPresent(film -> columns.setLikes(film.getId(), film.getLikeCount()));
+            }
+        });
+    }
+
+    @EventListener
+    public void onLikeCountsEvent(LikeCountsEvent event) {
+        write(() -> {
+            for (long filmId : event.filmIds()) {
+                filmStorage.findById(filmId).ifPresent(film -> columns.setLikes(filmId, film.getLikeCount()));
+            }
+        });
+    }
+
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (event.type() == EventType.CLEARED) {
+            write(columns::resetLikes);
+        }
+    }
+
+    private void upsert(Film film) {
+        columns.upsert(film.getId(),
+                film.getDuration() == null ? 0 : film.getDuration(),
+                film.getReleaseDate() == null ? 0 : Math.toIntExact(film.getReleaseDate().toEpochDay()),
+                film.getMpa() == null ? FilmColumns.NO_MPA : film.getMpa().ordinal(),
+                film.getGenreMask(),
+                film.getLikeCount());
+    }
+
+    private void write(Runnable change) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            change.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
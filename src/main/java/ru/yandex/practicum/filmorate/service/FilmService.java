@@ -1,16 +1,29 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.GenreDictionary;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,51 +33,119 @@ public class FilmService {
 
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final CascadeLock cascadeLock;
+    private final TrendingIndex trendingIndex;
+    private final Optional<LikeEventPipeline> likePipeline;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void startLikePipeline() {
+        likePipeline.ifPresent(pipeline -> pipeline.start(this::applyLikes));
+    }
 
     public Collection<Film> findAll() {
+        return findAll(null);
+    }
+
+    public Collection<Film> findAll(Long readerId) {
         log.debug("Получен запрос на получение всех фильмов");
+        awaitOwnLikes(readerId);
         return filmStorage.findAll();
     }
 
+    public BatchResult<Film> findByIds(List<Long> ids) {
+        return findByIds(ids, null);
+    }
+
+    public BatchResult<Film> findByIds(List<Long> ids, Long readerId) {
+        long[] requested = BatchResult.requestIds(ids);
+        log.debug("Пакетный запрос фильмов: {} id", requested.length);
+        awaitOwnLikes(readerId);
+        return BatchResult.of(requested, filmStorage.findByIds(requested));
+    }
+
     public Film create(Film film) {
         log.debug("Создание фильма: {}", film);
-        return filmStorage.create(film);
+        Film created = filmStorage.create(film);
+        eventPublisher.publishEvent(new FilmEvent(EventType.CREATED, created.getId()));
+        return created;
     }
 
     public Film update(Film film) {
-        log.debug("Обновление фильма: {}", film);
-        return filmStorage.update(film);
+        return update(film, null);
+    }
+
+    public Film update(Film film, Long expectedVersion) {
+        log.debug("Обновление фильма: {}, ожидаемая версия {}", film, expectedVersion);
+        Film updated = filmStorage.update(film, expectedVersion);
+        eventPublisher.publishEvent(new FilmEvent(EventType.UPDATED, updated.getId()));
+        return updated;
+    }
+
+    public Film replicate(Film film) {
+        log.debug("Обновление фильма с репликацией версии {}: {}", film.getVersion(), film);
+        Film updated = filmStorage.replicate(film);
+        eventPublisher.publishEvent(new FilmEvent(EventType.UPDATED, updated.getId()));
+        return updated;
     }
 
     public void deleteFilm(Long id) {
         log.debug("Удаление фильма с id={}", id);
-        filmStorage.deleteById(id);
+        Lock lock = cascadeLock.exclusive();
+        lock.lock();
+        try {
+            getFilmById(id);
+            filmStorage.deleteById(id);
+            Set<Long> likes = likeStorage.removeFilm(id);
+            log.trace("Вместе с фильмом id={} удалено {} лайков", id, likes.size());
+        } finally {
+            lock.unlock();
+        }
+        eventPublisher.publishEvent(new FilmEvent(EventType.DELETED, id));
     }
 
     public void clearAllFilms() {
         log.debug("Очистка всех фильмов");
-        filmStorage.clear();
+        Lock lock = cascadeLock.exclusive();
+        lock.lock();
+        try {
+            filmStorage.clear();
+            likeStorage.clear();
+        } finally {
+            lock.unlock();
+        }
+        eventPublisher.publishEvent(new FilmEvent(EventType.CLEARED, null));
     }
 
     public void addLike(Long filmId, Long userId) {
         log.debug("Добавление лайка фильму id={} от пользователя id={}", filmId, userId);
-        Film film = getFilmById(filmId);
-        validateUserExists(userId);
-        film.getLikes().add(userId);
-        log.trace("Фильм '{}' теперь имеет {} лайков", film.getName(), film.getLikes().size());
+        changeLike(filmId, userId, true);
     }
 
     public void removeLike(Long filmId, Long userId) {
         log.debug("Удаление лайка у фильма id={} от пользователя id={}", filmId, userId);
-        Film film = getFilmById(filmId);
-        validateUserExists(userId);
-        film.getLikes().remove(userId);
-        log.trace("Фильм '{}' теперь имеет {} лайков", film.getName(), film.getLikes().size());
+        changeLike(filmId, userId, false);
     }
 
     public List<Film> getMostPopular(int count) {
-        log.debug("Запрос популярных фильмов, количество={}", count);
+        return getMostPopular(count, null);
+    }
+
+    public List<Film> getMostPopular(int count, Long genreId) {
+        return getMostPopular(count, genreId, null);
+    }
+
+    public List<Film> getMostPopular(int count, Long genreId, Long readerId) {
+        log.debug("Запрос популярных фильмов, количество={}, жанр={}", count, genreId);
+        long genreBit = genreId == null ? 0 : GenreDictionary.bit(genreId);
+        if (genreBit == GenreDictionary.UNKNOWN) {
+            log.warn("Жанр с id={} не найден", genreId);
+            throw new NotFoundException("Жанр с id=" + genreId + " не найден");
+        }
+        awaitOwnLikes(readerId);
         List<Film> popularFilms = filmStorage.findAll().stream()
+                .filter(film -> genreBit == 0 || (film.getGenreMask() & genreBit) != 0)
                 .sorted(Comparator.comparingInt((Film f) -> f.getLikes().size()).reversed())
                 .limit(count)
                 .collect(Collectors.toList());
@@ -73,10 +154,86 @@ public class FilmService {
         return popularFilms;
     }
 
+    public List<Film> getTrending(TrendingWindow window, int count) {
+        return getTrending(window, count, null);
+    }
+
+    public List<Film> getTrending(TrendingWindow window, int count, Long readerId) {
+        log.debug("Запрос трендовых фильмов, окно={}, количество={}", window, count);
+        awaitOwnLikes(readerId);
+        List<Film> trending = new ArrayList<>(count);
+        for (Long filmId : trendingIndex.findTopFilmIds(window, count)) {
+            filmStorage.findById(filmId).ifPresent(trending::add);
+        }
+        log.trace("Трендовые фильмы за окно {}: {}", window,
+                trending.stream().map(Film::getName).collect(Collectors.toList()));
+        return trending;
+    }
+
+    private void changeLike(Long filmId, Long userId, boolean like) {
+        Lock lock = cascadeLock.shared();
+        lock.lock();
+        boolean changed = false;
+        Film film;
+        try {
+            film = getFilmById(filmId);
+            validateUserExists(userId);
+            if (likePipeline.isEmpty()) {
+                changed = applyLike(film, userId, like);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (likePipeline.isPresent()) {
+            likePipeline.get().submit(filmId, userId, like);
+            return;
+        }
+        if (changed) {
+            eventPublisher.publishEvent(LikesEvent.of(filmId, userId, like));
+        }
+        log.trace("Фильм '{}' теперь имеет {} лайков", film.getName(), film.getLikes().size());
+    }
+
+    private boolean applyLike(Film film, Long userId, boolean like) {
+        // Лайки фильма — представление хранилища лайков, обе стороны связи меняются в нём атомарно
+        return like ? likeStorage.addLike(film.getId(), userId) : likeStorage.removeLike(film.getId(), userId);
+    }
+
+    private void applyLikes(Collection<LikeEventPipeline.LikeOp> ops) {
+        List<LikesEvent.LikeChange> changes = new ArrayList<>(ops.size());
+        Lock lock = cascadeLock.shared();
+        lock.lock();
+        try {
+            for (LikeEventPipeline.LikeOp op : ops) {
+                Optional<Film> film = filmStorage.findById(op.filmId());
+                if (film.isEmpty() || userStorage.findById(op.userId()).isEmpty()) {
+                    log.trace("Фильм id={} или пользователь id={} удалён до применения лайка",
+                            op.filmId(), op.userId());
+                    continue;
+                }
+                if (applyLike(film.get(), op.userId(), op.like())) {
+                    changes.add(new LikesEvent.LikeChange(op.filmId(), op.userId(), op.like()));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new LikesEvent(changes));
+        }
+        log.trace("Применён пакет из {} лайков, изменений: {}", ops.size(), changes.size());
+    }
+
+    /**
+     * Чтение от имени пользователя видит все его лайки, отправленные в асинхронную очередь. Анонимное
+     * чтение очередь не ждёт.
+     */
+    private void awaitOwnLikes(Long readerId) {
+        likePipeline.ifPresent(pipeline -> pipeline.awaitApplied(readerId));
+    }
+
     private void validateUserExists(Long userId) {
-        boolean exists = userStorage.findAll().stream()
-                .anyMatch(u -> u.getId().equals(userId));
-        if (!exists) {
+        if (userStorage.findById(userId).isEmpty()) {
             log.warn("Попытка обращения к несуществующему пользователю id={}", userId);
             throw new NotFoundException("Пользователь с id=" + userId + " не найден");
         }
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.SearchTimeoutException;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.util.LongArrayList;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class FriendPathFinder {
+
+    private static final long ROOT = Long.MIN_VALUE;
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final FriendshipStorage friendshipStorage;
+    private final long timeBudgetNanos;
+    private final ThreadLocal<SearchState> states = ThreadLocal.withInitial(SearchState::new);
+
+    public FriendPathFinder(FriendshipStorage friendshipStorage,
+                            @Value("${filmorate.path.time-budget-ms:50}") long timeBudgetMs) {
+        this.friendshipStorage = friendshipStorage;
+        this.timeBudgetNanos = timeBudgetMs * 1_000_000;
+    }
+
+    public Optional<long[]> findPath(long sourceId, long targetId, int maxDepth) {
+        if (sourceId == targetId) {
+            return Optional.of(new long[]{sourceId});
+        }
+        SearchState state = states.get();
+        state.reset(sourceId, targetId);
+        long deadline = System.nanoTime() + timeBudgetNanos;
+
+        for (int depth = 0; depth < maxDepth; depth++) {
+            if (state.forwardFrontier.isEmpty() || state.backwardFrontier.isEmpty()) {
+                return Optional.empty();
+            }
+            boolean forward = state.forwardFrontier.size() <= state.backwardFrontier.size();
+            long meeting = forward
+                    ? expand(state.forwardFrontier, state.forwardParents, state.backwardParents, true,
+                    state.next, deadline)
+                    : expand(state.backwardFrontier, state.backwardParents, state.forwardParents, false,
+                    state.next, deadline);
+            if (meeting != ROOT) {
+                return Optional.of(buildPath(state, meeting));
+            }
+            state.swapFrontier(forward);
+        }
+        return Optional.empty();
+    }
+
+    private long expand(LongArrayList frontier, LongLongHashMap ownParents, LongLongHashMap otherParents,
+                        boolean forward, LongArrayList next, long deadline) {
+        next.clear();
+        long meeting = ROOT;
+        int meetingDepth = Integer.MAX_VALUE;
+        for (int i = 0; i < frontier.size(); i++) {
+            if (i % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                log.warn("Поиск пути между пользователями превысил бюджет времени");
+                throw new SearchTimeoutException("Путь между пользователями не найден за отведённое время");
+            }
+            long node = frontier.get(i);
+            long[] neighbours = forward
+                    ? friendshipStorage.findFriendIds(node)
+                    : friendshipStorage.findFollowerIds(node);
+            for (long neighbour : neighbours) {
+                if (!ownParents.putIfAbsent(neighbour, node)) {
+                    continue;
+                }
+                if (otherParents.containsKey(neighbour)) {
+                    int depth = depthOf(otherParents, neighbour);
+                    if (depth < meetingDepth) {
+                        meeting = neighbour;
+                        meetingDepth = depth;
+                    }
+                }
+                next.add(neighbour);
+            }
+        }
+        return meeting;
+    }
+
+    private long[] buildPath(SearchState state, long meeting) {
+        int forwardDepth = depthOf(state.forwardParents, meeting);
+        int backwardDepth = depthOf(state.backwardParents, meeting);
+        long[] path = new long[forwardDepth + backwardDepth + 1];
+        long node = meeting;
+        for (int i = forwardDepth; i >= 0; i--) {
+            path[i] = node;
+            node = state.forwardParents.get(node, ROOT);
+        }
+        node = meeting;
+        for (int i = forwardDepth; i < path.length; i++) {
+            path[i] = node;
+            node = state.backwardParents.get(node, ROOT);
+        }
+        return path;
+    }
+
+    private int depthOf(LongLongHashMap parents, long node) {
+        int depth = 0;
+        for (long parent = parents.get(node, ROOT); parent != ROOT; parent = parents.get(parent, ROOT)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static class SearchState {
+        private final LongLongHashMap forwardParents = new LongLongHashMap(1024);
+        private final LongLongHashMap backwardParents = new LongLongHashMap(1024);
+        private LongArrayList forwardFrontier = new LongArrayList(256);
+        private LongArrayList backwardFrontier = new LongArrayList(256);
+        private LongArrayList next = new LongArrayList(256);
+
+        void reset(long sourceId, long targetId) {
+            forwardParents.clear();
+            backwardParents.clear();
+            forwardFrontier.clear();
+            backwardFrontier.clear();
+            forwardParents.putIfAbsent(sourceId, ROOT);
+            backwardParents.putIfAbsent(targetId, ROOT);
+            forwardFrontier.add(sourceId);
+            backwardFrontier.add(targetId);
+        }
+
+        void swapFrontier(boolean forward) {
+            LongArrayList expanded;
+            if (forward) {
+                expanded = forwardFrontier;
+                forwardFrontier = next;
+            } else {
+                expanded = backwardFrontier;
+                backwardFrontier = next;
+            }
+            next = expanded;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.LruCache;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+public class FriendsCache implements MeterBinder {
+
+    private final LruCache<Long, List<User>> friends;
+    private final LruCache<PairKey, List<User>> commonFriends;
+
+    public FriendsCache(@Value("${filmorate.cache.friends.max-size:10000}") int maxSize) {
+        this.friends = new LruCache<>("friends", maxSize);
+        this.commonFriends = new LruCache<>("common-friends", maxSize, PairKey::tags);
+    }
+
+    public List<User> getFriends(Long userId, Supplier<List<User>> loader) {
+        return getOrLoad(friends, userId, loader);
+    }
+
+    public List<User> getCommonFriends(Long userId, Long otherId, Supplier<List<User>> loader) {
+        return getOrLoad(commonFriends, PairKey.of(userId, otherId), loader);
+    }
+
+    public void invalidateFriendship(Long userId, Long friendId) {
+        friends.invalidate(userId);
+        friends.invalidate(friendId);
+        commonFriends.invalidateTagged(userId, friendId);
+    }
+
+    public void invalidateProfile(Long userId, long[] listedBy) {
+        long[] affected = Arrays.copyOf(listedBy, listedBy.length + 1);
+        affected[listedBy.length] = userId;
+        for (long id : affected) {
+            friends.invalidate(id);
+        }
+        commonFriends.invalidateTagged(affected);
+    }
+
+    public void invalidateAll() {
+        friends.invalidateAll();
+        commonFriends.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        friends.bindTo(registry);
+        commonFriends.bindTo(registry);
+    }
+
+    private <K> List<User> getOrLoad(LruCache<K, List<User>> cache, K key, Supplier<List<User>> loader) {
+        List<User> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = cache.stamp();
+        List<User> loaded = List.copyOf(loader.get());
+        cache.putIfFresh(key, loaded, stamp);
+        return loaded;
+    }
+
+    private record PairKey(Long first, Long second) {
+        static PairKey of(Long a, Long b) {
+            return a <= b ? new PairKey(a, b) : new PairKey(b, a);
+        }
+
+        long[] tags() {
+            return new long[]{first, second};
+        }
+    }
+}
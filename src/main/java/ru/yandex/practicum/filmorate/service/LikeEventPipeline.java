@@ -0,0 +1,213 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.util.LongArrayList;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Очередь лайков с одним применяющим потоком. Для каждого пользователя считается число его операций,
+ * ещё не применённых к хранилищу: чтение от имени пользователя ждёт очередь, только пока у него есть
+ * такие операции, а чтение без пользователя не ждёт вовсе.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.async.enabled", havingValue = "true")
+public class LikeEventPipeline implements MeterBinder {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BARRIER_TIMEOUT_MS = 5_000;
+
+    private final int capacity;
+    private final int maxBatchSize;
+
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Map<Long, Integer> pendingByUser = new ConcurrentHashMap<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private volatile Consumer<Collection<LikeOp>> sink;
+    private volatile boolean running;
+    private volatile Thread applierThread;
+
+    public LikeEventPipeline(@Value("${filmorate.likes.async.capacity:65536}") int capacity,
+                             @Value("${filmorate.likes.async.max-batch-size:4096}") int maxBatchSize) {
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public synchronized void start(Consumer<Collection<LikeOp>> sink) {
+        if (running) {
+            return;
+        }
+        this.sink = sink;
+        running = true;
+        applierThread = new Thread(this::runApplier, "like-pipeline-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+        log.info("Асинхронная обработка лайков запущена: ёмкость очереди={}, размер пакета={}",
+                capacity, maxBatchSize);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        awaitApplied();
+        running = false;
+        LockSupport.unpark(applierThread);
+        log.info("Асинхронная обработка лайков остановлена");
+    }
+
+    public void submit(Long filmId, Long userId, boolean like) {
+        while (true) {
+            int current = depth.get();
+            if (current < capacity) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    break;
+                }
+                continue;
+            }
+            throttled.increment();
+            LockSupport.unpark(applierThread);
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        pendingByUser.merge(userId, 1, Integer::sum);
+        queue.offer(new LikeOp(filmId, userId, like));
+        submitted.increment();
+        LockSupport.unpark(applierThread);
+    }
+
+    /**
+     * Ждёт применения операций, отправленных пользователем {@code userId}. Если у него их нет, возвращается
+     * сразу, не дожидаясь чужих лайков.
+     */
+    public void awaitApplied(Long userId) {
+        if (userId != null && pendingByUser.containsKey(userId)) {
+            awaitApplied();
+        }
+    }
+
+    public void awaitApplied() {
+        if (!running || depth.get() == 0) {
+            return;
+        }
+        CountDownLatch barrier = new CountDownLatch(1);
+        queue.offer(barrier);
+        LockSupport.unpark(applierThread);
+        try {
+            if (!barrier.await(BARRIER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("Не дождались применения лайков за {} мс", BARRIER_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.likes.queue.depth", depth, AtomicInteger::get)
+                .description("Количество лайков, ожидающих применения")
+                .register(registry);
+        Gauge.builder("filmorate.likes.queue.utilization", this, p -> (double) p.depth.get() / p.capacity)
+                .description("Заполненность очереди лайков")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.submitted", submitted, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.applied", applied, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.coalesced", coalesced, LongAdder::sum)
+                .description("Лайки, поглощённые более поздней операцией той же пары фильм/пользователь")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.batches", batches, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.queue.throttled", throttled, LongAdder::sum)
+                .description("Ожидания производителей из-за переполненной очереди")
+                .register(registry);
+    }
+
+    private void runApplier() {
+        Map<LikeKey, LikeOp> batch = new LinkedHashMap<>();
+        LongArrayList drainedUsers = new LongArrayList(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            int drained = 0;
+            Object next;
+            while (drained < maxBatchSize && (next = queue.poll()) != null) {
+                if (next instanceof CountDownLatch barrier) {
+                    flush(batch, drainedUsers);
+                    drained = 0;
+                    barrier.countDown();
+                    continue;
+                }
+                LikeOp op = (LikeOp) next;
+                batch.put(new LikeKey(op.filmId(), op.userId()), op);
+                drainedUsers.add(op.userId());
+                drained++;
+            }
+            if (drained > 0) {
+                flush(batch, drainedUsers);
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void flush(Map<LikeKey, LikeOp> batch, LongArrayList drainedUsers) {
+        int drained = drainedUsers.size();
+        if (drained == 0) {
+            return;
+        }
+        try {
+            sink.accept(batch.values());
+        } catch (RuntimeException e) {
+            log.error("Ошибка применения пакета лайков", e);
+        }
+        batches.increment();
+        applied.add(batch.size());
+        coalesced.add(drained - batch.size());
+        batch.clear();
+        for (int i = 0; i < drained; i++) {
+            pendingByUser.computeIfPresent(drainedUsers.get(i), (userId, count) -> count == 1 ? null : count - 1);
+        }
+        drainedUsers.clear();
+        depth.addAndGet(-drained);
+    }
+
+    public record LikeOp(Long filmId, Long userId, boolean like) {
+    }
+
+    private record LikeKey(Long filmId, Long userId) {
+    }
+}
@@ -0,0 +1,312 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LikeDelta;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class LikeStreamBroadcaster implements MeterBinder {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "likes";
+
+    private static final Comparator<Ranked> RANKING = Comparator
+            .comparingInt(Ranked::likeCount).reversed()
+            .thenComparingLong(Ranked::filmId);
+
+    private final FilmStorage filmStorage;
+    private final ObjectMapper objectMapper;
+    private final int topSize;
+    private final int bufferSize;
+    private final long timeoutMs;
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicBoolean rerankAll = new AtomicBoolean();
+
+    private final Map<Long, Ranked> ranked = new HashMap<>();
+    private final TreeSet<Ranked> leaderboard = new TreeSet<>(RANKING);
+    private List<Long> top = List.of();
+    private volatile String snapshot = "[]";
+
+    public LikeStreamBroadcaster(FilmStorage filmStorage, ObjectMapper objectMapper,
+                                 @Value("${filmorate.stream.top-size:100}") int topSize,
+                                 @Value("${filmorate.stream.buffer-size:16}") int bufferSize,
+                                 @Value("${filmorate.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.filmStorage = filmStorage;
+        this.objectMapper = objectMapper;
+        this.topSize = topSize;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(new Message(sequence.get(), SNAPSHOT_EVENT, snapshot));
+        log.debug("Новый подписчик на поток лайков, всего: {}", subscribers.size());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onLikesEvent(LikesEvent event) {
+        for (LikesEvent.LikeChange change : event.changes()) {
+            dirty.add(change.filmId());
+        }
+    }
+
+    @EventListener
+    public void onLikeCountsEvent(LikeCountsEvent event) {
+        for (long filmId : event.filmIds()) {
+            dirty.add(filmId);
+        }
+    }
+
+    @EventListener
+    public void onFilmEvent(FilmEvent event) {
+        if (event.type() == EventType.CLEARED) {
+            rerankAll.set(true);
+        } else if (event.type() != EventType.CREATED) {
+            dirty.add(event.filmId());
+        }
+    }
+
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (event.type() == EventType.CLEARED) {
+            rerankAll.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.stream.tick-ms:1000}")
+    public synchronized void tick() {
+        if (rerankAll.getAndSet(false)) {
+            dirty.addAll(ranked.keySet());
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> previousRanks = ranks(top);
+        Map<Long, Integer> changed = new LinkedHashMap<>();
+        Iterator<Long> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            Long filmId = iterator.next();
+            iterator.remove();
+            int likeCount = filmStorage.findById(filmId).map(Film::getLikeCount).orElse(0);
+            rerank(filmId, likeCount);
+            changed.put(filmId, likeCount);
+        }
+
+        List<Long> newTop = new ArrayList<>(Math.min(topSize, leaderboard.size()));
+        for (Ranked entry : leaderboard) {
+            if (newTop.size() == topSize) {
+                break;
+            }
+            newTop.add(entry.filmId());
+        }
+        Map<Long, Integer> newRanks = ranks(newTop);
+        for (Long filmId : newTop) {
+            if (!Objects.equals(previousRanks.get(filmId), newRanks.get(filmId))) {
+                changed.putIfAbsent(filmId, ranked.get(filmId).likeCount());
+            }
+        }
+        for (Long filmId : top) {
+            if (!newRanks.containsKey(filmId)) {
+                changed.putIfAbsent(filmId, likeCount(filmId));
+            }
+        }
+
+        List<LikeDelta> deltas = new ArrayList<>(changed.size());
+        changed.forEach((filmId, likeCount) -> deltas.add(
+                new LikeDelta(filmId, likeCount, newRanks.get(filmId), previousRanks.get(filmId))));
+        if (!newTop.equals(top) || !deltas.isEmpty()) {
+            top = newTop;
+            snapshot = toJson(newTop.stream()
+                    .map(filmId -> new LikeDelta(filmId, ranked.get(filmId).likeCount(),
+                            newRanks.get(filmId), newRanks.get(filmId)))
+                    .toList());
+        }
+        publish(deltas);
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.stream.subscribers", subscribers, Set::size)
+                .description("Количество подписчиков на поток лайков")
+                .register(registry);
+        FunctionCounter.builder("filmorate.stream.published", published, LongAdder::sum)
+                .description("Пакеты изменений, отправленные подписчикам")
+                .register(registry);
+        FunctionCounter.builder("filmorate.stream.dropped", dropped, LongAdder::sum)
+                .description("Подписчики, отключённые из-за переполнения буфера")
+                .register(registry);
+    }
+
+    private void publish(List<LikeDelta> deltas) {
+        if (deltas.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        Message message = new Message(sequence.incrementAndGet(), DELTA_EVENT, toJson(deltas));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+        published.increment();
+        log.trace("Отправлено {} изменений {} подписчикам", deltas.size(), subscribers.size());
+    }
+
+    private void rerank(Long filmId, int likeCount) {
+        Ranked previous = ranked.remove(filmId);
+        if (previous != null) {
+            leaderboard.remove(previous);
+        }
+        if (likeCount > 0) {
+            Ranked current = new Ranked(filmId, likeCount);
+            ranked.put(filmId, current);
+            leaderboard.add(current);
+        }
+    }
+
+    private int likeCount(Long filmId) {
+        Ranked entry = ranked.get(filmId);
+        return entry == null ? 0 : entry.likeCount();
+    }
+
+    private static Map<Long, Integer> ranks(List<Long> filmIds) {
+        Map<Long, Integer> ranks = new HashMap<>(filmIds.size() * 2);
+        for (int i = 0; i < filmIds.size(); i++) {
+            ranks.put(filmIds.get(i), i + 1);
+        }
+        return ranks;
+    }
+
+    private String toJson(List<LikeDelta> deltas) {
+        try {
+            return objectMapper.writeValueAsString(deltas);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Ranked(long filmId, int likeCount) {
+    }
+
+    private record Message(long id, String name, String json) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Message> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(Message message) {
+            if (!buffer.offer(message)) {
+                drop();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while ((message = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(message.id()))
+                            .name(message.name())
+                            .data(message.json(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Подписчик на поток лайков отключился: {}", e.getMessage());
+                subscribers.remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty() && subscribers.contains(this)) {
+                scheduleDrain();
+            }
+        }
+
+        private void drop() {
+            if (subscribers.remove(this)) {
+                dropped.increment();
+                buffer.clear();
+                log.debug("Медленный подписчик на поток лайков отключён");
+                sender.execute(emitter::complete);
+            }
+        }
+    }
+}
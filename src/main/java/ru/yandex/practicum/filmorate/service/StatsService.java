@@ -0,0 +1,265 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.model.CatalogStats;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.sketch.CountMinSketch;
+import ru.yandex.practicum.filmorate.sketch.HeavyHitters;
+import ru.yandex.practicum.filmorate.sketch.HyperLogLog;
+import ru.yandex.practicum.filmorate.sketch.LogHistogram;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Статистика каталога на скетчах, разбитых на шарды по id фильма. Уникальные лайкнувшие (HyperLogLog) и
+ * лидеры по жанрам (Count-Min) занимают память, зависящую только от параметров скетчей. Гистограмма
+ * распределения лайков ограничена числом корзин, но питается точными счётчиками лайков каждого фильма,
+ * поэтому память сервиса растёт как O(фильмов): по одной паре {@code long} на фильм в
+ * {@link LongLongHashMap}. Точные счётчики нужны, чтобы при удалении фильма, лайка или всех пользователей
+ * переносить фильм между корзинами без накопления ошибки. Время запроса от числа фильмов не зависит.
+ */
+@Slf4j
+@Service
+public class StatsService {
+
+    private static final int HISTOGRAM_BUCKETS = 2048;
+
+    private final FilmStorage filmStorage;
+    private final Clock clock;
+    private final int days;
+    private final int hllPrecision;
+    private final double cmsEpsilon;
+    private final double cmsDelta;
+    private final int heavyHitters;
+    private final double quantileAccuracy;
+    private final Shard[] shards;
+
+    @Autowired
+    public StatsService(FilmStorage filmStorage,
+                        @Value("${filmorate.stats.shards:4}") int shards,
+                        @Value("${filmorate.stats.days:7}") int days,
+                        @Value("${filmorate.stats.hll-precision:12}") int hllPrecision,
+                        @Value("${filmorate.stats.cms-epsilon:0.001}") double cmsEpsilon,
+                        @Value("${filmorate.stats.cms-delta:0.01}") double cmsDelta,
+                        @Value("${filmorate.stats.heavy-hitters:10}") int heavyHitters,
+                        @Value("${filmorate.stats.quantile-accuracy:0.01}") double quantileAccuracy) {
+        this(filmStorage, Clock.systemUTC(), shards, days, hllPrecision, cmsEpsilon, cmsDelta, heavyHitters,
+                quantileAccuracy);
+    }
+
+    public StatsService(FilmStorage filmStorage, Clock clock, int shards, int days, int hllPrecision,
+                        double cmsEpsilon, double cmsDelta, int heavyHitters, double quantileAccuracy) {
+        this.filmStorage = filmStorage;
+        this.clock = clock;
+        this.days = days;
+        this.hllPrecision = hllPrecision;
+        this.cmsEpsilon = cmsEpsilon;
+        this.cmsDelta = cmsDelta;
+        this.heavyHitters = heavyHitters;
+        this.quantileAccuracy = quantileAccuracy;
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard();
+        }
+    }
+
+    public CatalogStats getStats() {
+        log.debug("Запрос статистики каталога");
+        long today = LocalDate.now(clock).toEpochDay();
+
+        List<CatalogStats.DailyCount> dailyCounts = new ArrayList<>(days);
+        for (long day = today; day > today - days; day--) {
+            HyperLogLog merged = new HyperLogLog(hllPrecision);
+            for (Shard shard : shards) {
+                shard.mergeLikersInto(merged, day);
+            }
+            dailyCounts.add(new CatalogStats.DailyCount(LocalDate.ofEpochDay(day), merged.estimate()));
+        }
+
+        LogHistogram distribution = new LogHistogram(quantileAccuracy, HISTOGRAM_BUCKETS);
+        Map<Long, HeavyHitters> byGenre = new TreeMap<>();
+        for (Shard shard : shards) {
+            shard.mergeInto(distribution, byGenre);
+        }
+
+        Map<Long, List<CatalogStats.FilmCount>> hittersByGenre = new TreeMap<>();
+        byGenre.forEach((genreId, hitters) -> {
+            long maxOverestimate = (long) Math.ceil(cmsEpsilon * hitters.getAdditions().getTotalCount());
+            long maxUnderestimate = (long) Math.ceil(cmsEpsilon * hitters.getRemovals().getTotalCount());
+            hittersByGenre.put(genreId, hitters.top().stream()
+                    .map(entry -> new CatalogStats.FilmCount(entry.getKey(), entry.getValue(), maxOverestimate,
+                            maxUnderestimate))
+                    .toList());
+        });
+
+        return new CatalogStats(
+                new CatalogStats.DistinctLikers(dailyCounts, 1.04 / Math.sqrt(1 << hllPrecision)),
+                new CatalogStats.LikeDistribution(distribution.getCount(), distribution.quantile(0.5),
+                        distribution.quantile(0.9), distribution.quantile(0.99), distribution.max(),
+                        quantileAccuracy),
+                new CatalogStats.HeavyHitters(hittersByGenre, cmsEpsilon, cmsDelta));
+    }
+
+    // Событие публикуется уже после изменения лайков, поэтому счётчик берём из фильма, а не копим +1/-1:
+    // повтор или пропуск события не сдвигает статистику навсегда
+    @EventListener
+    public void onLikesEvent(LikesEvent event) {
+        long day = LocalDate.now(clock).toEpochDay();
+        for (LikesEvent.LikeChange change : event.changes()) {
+            Shard shard = shard(change.filmId());
+            if (change.added()) {
+                shard.offerLiker(change.userId(), day);
+            }
+            Optional<Film> film = filmStorage.findById(change.filmId());
+            if (film.isEmpty()) {
+                continue;
+            }
+            shard.syncLikes(change.filmId(), film.get().getLikeCount(), film.get().getGenreMask());
+        }
+    }
+
+    // Загруженные пакетом лайки приходят без пользователей, поэтому в оценку уникальных лайкнувших за день
+    // они не попадают: это исторические данные, а не сегодняшняя активность
+    @EventListener
+    public void onLikeCountsEvent(LikeCountsEvent event) {
+        for (long filmId : event.filmIds()) {
+            filmStorage.findById(filmId).ifPresent(film ->
+                    shard(filmId).syncLikes(filmId, film.getLikeCount(), film.getGenreMask()));
+        }
+    }
+
+    @EventListener
+    public void onFilmEvent(FilmEvent event) {
+        if (event.type() == EventType.CREATED) {
+            shard(event.filmId()).addFilm(event.filmId());
+        } else if (event.type() == EventType.UPDATED) {
+            filmStorage.findById(event.filmId()).ifPresent(film ->
+                    shard(event.filmId()).syncLikes(film.getId(), film.getLikeCount(), film.getGenreMask()));
+        } else if (event.type() == EventType.DELETED) {
+            shard(event.filmId()).removeFilm(event.filmId());
+        } else if (event.type() == EventType.CLEARED) {
+            for (Shard shard : shards) {
+                shard.clearFilms();
+            }
+        }
+    }
+
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (event.type() == EventType.CLEARED) {
+            for (Shard shard : shards) {
+                shard.resetLikes();
+            }
+        }
+    }
+
+    private Shard shard(Long filmId) {
+        return shards[(int) Math.floorMod(filmId, (long) shards.length)];
+    }
+
+    private final class Shard {
+        private final HyperLogLog[] likers = new HyperLogLog[days];
+        private final long[] likerDays = new long[days];
+        // Единственная часть шарда, растущая с каталогом: текущее число лайков каждого фильма шарда
+        private final LongLongHashMap likeCounts = new LongLongHashMap(1024);
+        private final LogHistogram distribution = new LogHistogram(quantileAccuracy, HISTOGRAM_BUCKETS);
+        private final Map<Long, HeavyHitters> byGenre = new HashMap<>();
+
+        private Shard() {
+            for (int i = 0; i < days; i++) {
+                likers[i] = new HyperLogLog(hllPrecision);
+                likerDays[i] = Long.MIN_VALUE;
+            }
+        }
+
+        synchronized void offerLiker(long userId, long day) {
+            likers(day).offer(userId);
+        }
+
+        synchronized void syncLikes(long filmId, long current, long genreMask) {
+            if (likeCounts.putIfAbsent(filmId, 0)) {
+                distribution.add(0, 1);
+            }
+            long previous = likeCounts.get(filmId, 0);
+            long delta = current - previous;
+            if (delta == 0) {
+                return;
+            }
+            likeCounts.put(filmId, current);
+            distribution.move(previous, current);
+            for (long bits = genreMask; bits != 0; bits &= bits - 1) {
+                byGenre.computeIfAbsent((long) Long.numberOfTrailingZeros(bits),
+                                id -> new HeavyHitters(new CountMinSketch(cmsEpsilon, cmsDelta), heavyHitters))
+                        .add(filmId, delta);
+            }
+        }
+
+        synchronized void addFilm(long filmId) {
+            if (likeCounts.putIfAbsent(filmId, 0)) {
+                distribution.add(0, 1);
+            }
+        }
+
+        synchronized void removeFilm(long filmId) {
+            long likes = likeCounts.remove(filmId, -1);
+            if (likes >= 0) {
+                distribution.add(likes, -1);
+            }
+            byGenre.values().forEach(hitters -> hitters.forget(filmId));
+        }
+
+        synchronized void clearFilms() {
+            likeCounts.clear();
+            distribution.clear();
+            byGenre.clear();
+        }
+
+        synchronized void resetLikes() {
+            likeCounts.forEach((filmId, likes) -> likeCounts.put(filmId, 0));
+            distribution.clear();
+            distribution.add(0, likeCounts.size());
+            byGenre.clear();
+        }
+
+        synchronized void mergeLikersInto(HyperLogLog target, long day) {
+            int slot = (int) Math.floorMod(day, (long) days);
+            if (likerDays[slot] == day) {
+                target.merge(likers[slot]);
+            }
+        }
+
+        synchronized void mergeInto(LogHistogram targetDistribution, Map<Long, HeavyHitters> targetByGenre) {
+            targetDistribution.merge(distribution);
+            byGenre.forEach((genreId, hitters) -> targetByGenre
+                    .computeIfAbsent(genreId, id -> hitters.emptyCopy())
+                    .merge(hitters));
+        }
+
+        private HyperLogLog likers(long day) {
+            int slot = (int) Math.floorMod(day, (long) days);
+            if (likerDays[slot] != day) {
+                likers[slot].clear();
+                likerDays[slot] = day;
+            }
+            return likers[slot];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+@Slf4j
+@Component
+public class TrendingIndex {
+
+    private final Clock clock;
+    private final Map<TrendingWindow, WindowCounters> windows = new EnumMap<>(TrendingWindow.class);
+
+    @Autowired
+    public TrendingIndex() {
+        this(Clock.systemUTC());
+    }
+
+    public TrendingIndex(Clock clock) {
+        this.clock = clock;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new WindowCounters(window, currentBucket(window)));
+        }
+    }
+
+    public List<Long> findTopFilmIds(TrendingWindow window, int count) {
+        return windows.get(window).top(count);
+    }
+
+    @EventListener
+    public void onLikesEvent(LikesEvent event) {
+        for (WindowCounters counters : windows.values()) {
+            counters.apply(event.changes());
+        }
+    }
+
+    @EventListener
+    public void onLikeCountsEvent(LikeCountsEvent event) {
+        for (WindowCounters counters : windows.values()) {
+            counters.add(event.filmIds(), event.added());
+        }
+    }
+
+    @EventListener
+    public void onFilmEvent(FilmEvent event) {
+        if (event.type() == EventType.DELETED) {
+            windows.values().forEach(counters -> counters.remove(event.filmId()));
+        } else if (event.type() == EventType.CLEARED) {
+            windows.values().forEach(WindowCounters::clear);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.trending.tick-ms:1000}")
+    public void tick() {
+        for (Map.Entry<TrendingWindow, WindowCounters> entry : windows.entrySet()) {
+            entry.getValue().advanceTo(currentBucket(entry.getKey()));
+        }
+    }
+
+    private long currentBucket(TrendingWindow window) {
+        return clock.millis() / window.getBucketLength().toMillis();
+    }
+
+    private static class FilmCounter {
+        private final long filmId;
+        private final int[] buckets;
+        private int total;
+
+        FilmCounter(long filmId, int bucketCount) {
+            this.filmId = filmId;
+            this.buckets = new int[bucketCount];
+        }
+    }
+
+    private static class WindowCounters {
+        private static final Comparator<FilmCounter> RANKING = Comparator
+                .comparingInt((FilmCounter counter) -> counter.total).reversed()
+                .thenComparingLong(counter -> counter.filmId);
+
+        private final TrendingWindow window;
+        private final Map<Long, FilmCounter> counters = new HashMap<>();
+        private final TreeSet<FilmCounter> leaderboard = new TreeSet<>(RANKING);
+        private long bucket;
+
+        WindowCounters(TrendingWindow window, long bucket) {
+            this.window = window;
+            this.bucket = bucket;
+        }
+
+        synchronized void apply(List<LikesEvent.LikeChange> changes) {
+            int slot = (int) (bucket % window.getBuckets());
+            for (LikesEvent.LikeChange change : changes) {
+                FilmCounter counter = counters.get(change.filmId());
+                if (counter == null) {
+                    if (!change.added()) {
+                        continue;
+                    }
+                    counter = new FilmCounter(change.filmId(), window.getBuckets());
+                    counters.put(change.filmId(), counter);
+                } else {
+                    leaderboard.remove(counter);
+                }
+                if (change.added()) {
+                    counter.buckets[slot]++;
+                    counter.total++;
+                } else {
+                    unlike(counter, slot);
+                }
+                if (counter.total == 0) {
+                    counters.remove(counter.filmId);
+                } else {
+                    rank(counter);
+                }
+            }
+        }
+
+        synchronized void add(long[] filmIds, long[] added) {
+            int slot = (int) (bucket % window.getBuckets());
+            for (int i = 0; i < filmIds.length; i++) {
+                FilmCounter counter = counters.get(filmIds[i]);
+                if (counter == null) {
+                    counter = new FilmCounter(filmIds[i], window.getBuckets());
+                    counters.put(filmIds[i], counter);
+                } else {
+                    leaderboard.remove(counter);
+                }
+                counter.buckets[slot] += (int) added[i];
+                counter.total += (int) added[i];
+                rank(counter);
+            }
+        }
+
+        synchronized List<Long> top(int count) {
+            List<Long> ids = new ArrayList<>(Math.min(count, leaderboard.size()));
+            Iterator<FilmCounter> iterator = leaderboard.iterator();
+            while (ids.size() < count && iterator.hasNext()) {
+                ids.add(iterator.next().filmId);
+            }
+            return ids;
+        }
+
+        synchronized void advanceTo(long target) {
+            if (target <= bucket) {
+                return;
+            }
+            if (target - bucket >= window.getBuckets()) {
+                clear();
+                bucket = target;
+                return;
+            }
+            while (bucket < target) {
+                bucket++;
+                int expired = (int) (bucket % window.getBuckets());
+                Iterator<FilmCounter> iterator = counters.values().iterator();
+                while (iterator.hasNext()) {
+                    FilmCounter counter = iterator.next();
+                    int expiredLikes = counter.buckets[expired];
+                    if (expiredLikes == 0) {
+                        continue;
+                    }
+                    leaderboard.remove(counter);
+                    counter.buckets[expired] = 0;
+                    counter.total -= expiredLikes;
+                    if (counter.total == 0) {
+                        iterator.remove();
+                    } else {
+                        rank(counter);
+                    }
+                }
+            }
+            log.trace("Окно {} сдвинуто, фильмов в окне: {}", window, counters.size());
+        }
+
+        synchronized void remove(Long filmId) {
+            FilmCounter counter = counters.remove(filmId);
+            if (counter != null) {
+                leaderboard.remove(counter);
+            }
+        }
+
+        synchronized void clear() {
+            counters.clear();
+            leaderboard.clear();
+        }
+
+        // Лайк мог попасть в любое из ещё не истёкших окон: снимаем его с самого свежего непустого,
+        // чтобы ни одна корзина не ушла в минус и не вернула лайк при истечении
+        private void unlike(FilmCounter counter, int slot) {
+            int buckets = window.getBuckets();
+            for (int age = 0; age < buckets; age++) {
+                int candidate = Math.floorMod(slot - age, buckets);
+                if (counter.buckets[candidate] > 0) {
+                    counter.buckets[candidate]--;
+                    counter.total--;
+                    return;
+                }
+            }
+        }
+
+        private void rank(FilmCounter counter) {
+            if (counter.total > 0) {
+                leaderboard.add(counter);
+            }
+        }
+    }
+}
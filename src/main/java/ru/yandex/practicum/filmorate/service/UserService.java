@@ -2,48 +2,125 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FriendshipEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PATH_DEPTH = 12;
+
     private final UserStorage userStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final LikeStorage likeStorage;
+    private final CascadeLock cascadeLock;
+    private final FriendsCache friendsCache;
+    private final FriendPathFinder friendPathFinder;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Collection<User> findAll() {
         log.debug("Получен запрос на получение всех пользователей");
         return userStorage.findAll();
     }
 
+    public BatchResult<User> findByIds(List<Long> ids) {
+        long[] requested = BatchResult.requestIds(ids);
+        log.debug("Пакетный запрос пользователей: {} id", requested.length);
+        return BatchResult.of(requested, userStorage.findByIds(requested));
+    }
+
     public User create(User user) {
         log.debug("Создание пользователя: {}", user);
-        return userStorage.create(user);
+        User created = userStorage.create(user);
+        eventPublisher.publishEvent(new UserEvent(EventType.CREATED, created.getId()));
+        return created;
     }
 
     public User update(User user) {
-        log.debug("Обновление пользователя: {}", user);
-        return userStorage.update(user);
+        return update(user, null);
+    }
+
+    public User update(User user, Long expectedVersion) {
+        log.debug("Обновление пользователя: {}, ожидаемая версия {}", user, expectedVersion);
+        User updated = userStorage.update(user, expectedVersion);
+        friendsCache.invalidateProfile(updated.getId(), friendshipStorage.findFollowerIds(updated.getId()));
+        eventPublisher.publishEvent(new UserEvent(EventType.UPDATED, updated.getId()));
+        return updated;
+    }
+
+    public User replicate(User user) {
+        log.debug("Обновление пользователя с репликацией версии {}: {}", user.getVersion(), user);
+        User updated = userStorage.replicate(user);
+        friendsCache.invalidateProfile(updated.getId(), friendshipStorage.findFollowerIds(updated.getId()));
+        eventPublisher.publishEvent(new UserEvent(EventType.UPDATED, updated.getId()));
+        return updated;
     }
 
     public void deleteUser(Long id) {
         log.debug("Удаление пользователя с id={}", id);
-        userStorage.deleteById(id);
+        Lock lock = cascadeLock.exclusive();
+        lock.lock();
+        long[] followerIds;
+        Set<Long> likedFilmIds;
+        try {
+            getUserById(id);
+            followerIds = friendshipStorage.removeUser(id);
+            likedFilmIds = likeStorage.removeUser(id);
+            userStorage.deleteById(id);
+        } finally {
+            lock.unlock();
+        }
+        log.trace("Вместе с пользователем id={} удалено {} заявок в друзья и {} лайков",
+                id, followerIds.length, likedFilmIds.size());
+
+        friendsCache.invalidateProfile(id, followerIds);
+        for (long followerId : followerIds) {
+            eventPublisher.publishEvent(new FriendshipEvent(followerId, id, false));
+        }
+        if (!likedFilmIds.isEmpty()) {
+            eventPublisher.publishEvent(new LikesEvent(likedFilmIds.stream()
+                    .map(filmId -> new LikesEvent.LikeChange(filmId, id, false))
+                    .toList()));
+        }
+        eventPublisher.publishEvent(new UserEvent(EventType.DELETED, id));
     }
 
     public void clearAllUsers() {
         log.debug("Очистка всех пользователей");
-        userStorage.clear();
+        Lock lock = cascadeLock.exclusive();
+        lock.lock();
+        try {
+            userStorage.clear();
+            friendshipStorage.clear();
+            // Лайки фильмов — представления хранилища лайков, поэтому обходить фильмы не нужно
+            likeStorage.clear();
+        } finally {
+            lock.unlock();
+        }
+        friendsCache.invalidateAll();
+        eventPublisher.publishEvent(new UserEvent(EventType.CLEARED, null));
     }
 
     public User addFriend(Long userId, Long friendId) {
@@ -54,24 +131,41 @@ public class UserService {
             throw new ValidationException("Пользователь не может добавить самого себя в друзья");
         }
 
-        User user = getUserById(userId);
-        User friendUser = getUserById(friendId);
-
-        user.getFriends().add(friendId);
-        friendUser.getFriends().add(userId);
+        Lock lock = cascadeLock.shared();
+        lock.lock();
+        User user;
+        User friendUser;
+        FriendshipStatus status;
+        try {
+            user = getUserById(userId);
+            friendUser = getUserById(friendId);
+            status = friendshipStorage.addFriend(userId, friendId);
+        } finally {
+            lock.unlock();
+        }
+        friendsCache.invalidateFriendship(userId, friendId);
+        eventPublisher.publishEvent(new FriendshipEvent(userId, friendId, true));
 
-        log.trace("Пользователь '{}' теперь друзья с '{}'", user.getName(), friendUser.getName());
+        log.trace("Пользователь '{}' добавил в друзья '{}', статус {}", user.getName(), friendUser.getName(), status);
         return user;
     }
 
     public User removeFriend(Long userId, Long friendId) {
         log.debug("Удаление друга: userId={} friendId={}", userId, friendId);
 
-        User user = getUserById(userId);
-        User friendUser = getUserById(friendId);
-
-        user.getFriends().remove(friendId);
-        friendUser.getFriends().remove(userId);
+        Lock lock = cascadeLock.shared();
+        lock.lock();
+        User user;
+        User friendUser;
+        try {
+            user = getUserById(userId);
+            friendUser = getUserById(friendId);
+            friendshipStorage.removeFriend(userId, friendId);
+        } finally {
+            lock.unlock();
+        }
+        friendsCache.invalidateFriendship(userId, friendId);
+        eventPublisher.publishEvent(new FriendshipEvent(userId, friendId, false));
 
         log.trace("Пользователь '{}' больше не является другом '{}'", user.getName(), friendUser.getName());
         return user;
@@ -79,35 +173,104 @@ public class UserService {
 
     public List<User> getCommonFriends(Long userId, Long otherId) {
         log.debug("Запрос общих друзей: userId={} otherId={}", userId, otherId);
+        return friendsCache.getCommonFriends(userId, otherId, () -> loadCommonFriends(userId, otherId));
+    }
 
+    public List<User> getFriends(Long userId) {
+        log.debug("Запрос списка друзей пользователя id={}", userId);
+        return friendsCache.getFriends(userId, () -> loadFriends(userId));
+    }
+
+    public List<User> getConfirmedFriends(Long userId) {
+        log.debug("Запрос подтверждённых друзей пользователя id={}", userId);
+        getUserById(userId);
+        return resolve(friendshipStorage.findConfirmedFriendIds(userId));
+    }
+
+    public List<User> getFriendRequests(Long userId) {
+        log.debug("Запрос входящих заявок в друзья пользователя id={}", userId);
+        getUserById(userId);
+        return resolve(friendshipStorage.findIncomingRequestIds(userId));
+    }
+
+    public Friendship getFriendship(Long userId, Long friendId) {
+        log.debug("Запрос статуса дружбы: userId={} friendId={}", userId, friendId);
+        getUserById(userId);
+        getUserById(friendId);
+        FriendshipStatus status = friendshipStorage.findStatus(userId, friendId)
+                .orElseThrow(() -> new NotFoundException(
+                        "Пользователь с id=" + userId + " не отправлял заявку пользователю с id=" + friendId));
+        Friendship friendship = new Friendship();
+        friendship.setFriendId(friendId);
+        friendship.setStatus(status);
+        return friendship;
+    }
+
+    public List<User> getPath(Long userId, Long otherId, int maxDepth) {
+        log.debug("Поиск цепочки друзей: userId={} otherId={} maxDepth={}", userId, otherId, maxDepth);
+        if (maxDepth < 1 || maxDepth > MAX_PATH_DEPTH) {
+            log.warn("Недопустимая глубина поиска цепочки друзей: {}", maxDepth);
+            throw new ValidationException("Глубина поиска должна быть от 1 до " + MAX_PATH_DEPTH);
+        }
+        getUserById(userId);
+        getUserById(otherId);
+
+        long[] path = friendPathFinder.findPath(userId, otherId, maxDepth)
+                .orElseThrow(() -> {
+                    log.trace("Цепочка друзей от id={} до id={} длиной до {} не найдена", userId, otherId, maxDepth);
+                    return new NotFoundException("Цепочка друзей от пользователя с id=" + userId
+                            + " до пользователя с id=" + otherId + " не найдена");
+                });
+        return resolve(path);
+    }
+
+    private List<User> loadCommonFriends(Long userId, Long otherId) {
         User user = getUserById(userId);
         User other = getUserById(otherId);
 
-        Set<Long> commonIds = new HashSet<>(user.getFriends());
-        commonIds.retainAll(other.getFriends());
+        long[] userFriends = friendshipStorage.findFriendIds(userId);
+        long[] otherFriends = friendshipStorage.findFriendIds(otherId);
+        Arrays.sort(userFriends);
+        Arrays.sort(otherFriends);
 
-        List<User> commonFriends = commonIds.stream()
-                .map(this::getUserById)
-                .collect(Collectors.toList());
+        long[] commonIds = new long[Math.min(userFriends.length, otherFriends.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < userFriends.length && j < otherFriends.length; ) {
+            if (userFriends[i] < otherFriends[j]) {
+                i++;
+            } else if (userFriends[i] > otherFriends[j]) {
+                j++;
+            } else {
+                commonIds[count++] = userFriends[i];
+                i++;
+                j++;
+            }
+        }
+        List<User> commonFriends = resolve(Arrays.copyOf(commonIds, count));
 
         log.trace("Общие друзья пользователей '{}' и '{}': {}", user.getName(), other.getName(),
                 commonFriends.stream().map(User::getName).collect(Collectors.toList()));
         return commonFriends;
     }
 
-    public List<User> getFriends(Long userId) {
-        log.debug("Запрос списка друзей пользователя id={}", userId);
+    private List<User> loadFriends(Long userId) {
         User user = getUserById(userId);
 
-        List<User> friends = user.getFriends().stream()
-                .map(this::getUserById)
-                .collect(Collectors.toList());
+        List<User> friends = resolve(friendshipStorage.findFriendIds(userId));
 
         log.trace("Список друзей пользователя '{}': {}", user.getName(),
                 friends.stream().map(User::getName).collect(Collectors.toList()));
         return friends;
     }
 
+    private List<User> resolve(long[] ids) {
+        BatchResult<User> batch = BatchResult.of(ids, userStorage.findByIds(ids));
+        if (!batch.missing().isEmpty()) {
+            log.trace("Пропущены удалённые пользователи: {}", batch.missing());
+        }
+        return batch.items();
+    }
+
     private User getUserById(Long id) {
         return userStorage.findById(id)
                 .orElseThrow(() -> {
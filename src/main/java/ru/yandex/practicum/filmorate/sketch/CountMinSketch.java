@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.sketch;
+
+import java.util.Arrays;
+
+public class CountMinSketch {
+
+    private final double epsilon;
+    private final double delta;
+    private final int width;
+    private final int depth;
+    private final long[] table;
+    private long totalCount;
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Параметры Count-Min должны быть в интервале (0, 1)");
+        }
+        this.epsilon = epsilon;
+        this.delta = delta;
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.table = new long[width * depth];
+    }
+
+    public void add(long item, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count-Min принимает только неотрицательные приращения");
+        }
+        long hash = Hashing.mix64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            table[row * width + column(h1, h2, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    public long estimate(long item) {
+        long hash = Hashing.mix64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row * width + column(h1, h2, row)]);
+        }
+        return Math.max(0, min);
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Нельзя объединить Count-Min разных размеров");
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        totalCount = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    public CountMinSketch emptyCopy() {
+        return new CountMinSketch(epsilon, delta);
+    }
+
+    private int column(int h1, int h2, int row) {
+        return ((h1 + row * h2) & Integer.MAX_VALUE) % width;
+    }
+}
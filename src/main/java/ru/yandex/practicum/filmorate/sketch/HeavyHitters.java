@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Top-k по Count-Min. Снятия копятся в отдельном скетче: Count-Min с отрицательными приращениями теряет гарантию
+ * {@code оценка <= истина + epsilon * N}, а с двумя неубывающими скетчами оценка разности лежит в пределах
+ * {@code [истина - epsilon * снятия, истина + epsilon * добавления]}.
+ */
+public class HeavyHitters {
+
+    private final CountMinSketch additions;
+    private final CountMinSketch removals;
+    private final int capacity;
+    private final Map<Long, Long> candidates = new HashMap<>();
+
+    public HeavyHitters(CountMinSketch additions, int capacity) {
+        this.additions = additions;
+        this.removals = additions.emptyCopy();
+        this.capacity = capacity;
+    }
+
+    public void add(long item, long count) {
+        if (count >= 0) {
+            additions.add(item, count);
+        } else {
+            removals.add(item, -count);
+        }
+        long estimate = estimate(item);
+        if (candidates.containsKey(item) || candidates.size() < capacity) {
+            candidates.put(item, estimate);
+            return;
+        }
+        Map.Entry<Long, Long> weakest = weakest();
+        if (weakest != null && estimate > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(item, estimate);
+        }
+    }
+
+    public void forget(long item) {
+        candidates.remove(item);
+    }
+
+    public void merge(HeavyHitters other) {
+        additions.merge(other.additions);
+        removals.merge(other.removals);
+        for (Long item : other.candidates.keySet()) {
+            candidates.put(item, 0L);
+        }
+        candidates.replaceAll((item, estimate) -> estimate(item));
+        while (candidates.size() > capacity) {
+            candidates.remove(weakest().getKey());
+        }
+    }
+
+    public List<Map.Entry<Long, Long>> top() {
+        List<Map.Entry<Long, Long>> top = new ArrayList<>(candidates.size());
+        for (Long item : candidates.keySet()) {
+            long estimate = estimate(item);
+            if (estimate > 0) {
+                top.add(Map.entry(item, estimate));
+            }
+        }
+        top.sort(Map.Entry.<Long, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        return top;
+    }
+
+    public long estimate(long item) {
+        return Math.max(0, additions.estimate(item) - removals.estimate(item));
+    }
+
+    public CountMinSketch getAdditions() {
+        return additions;
+    }
+
+    public CountMinSketch getRemovals() {
+        return removals;
+    }
+
+    public HeavyHitters emptyCopy() {
+        return new HeavyHitters(additions.emptyCopy(), capacity);
+    }
+
+    private Map.Entry<Long, Long> weakest() {
+        return candidates.entrySet().stream()
+                .min(Map.Entry.<Long, Long>comparingByValue()
+                        .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()))
+                .orElse(null);
+    }
+}
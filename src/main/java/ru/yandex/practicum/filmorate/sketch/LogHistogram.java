@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.sketch;
+
+import java.util.Arrays;
+
+public class LogHistogram {
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private final long[] buckets;
+    private long zeroCount;
+    private long count;
+
+    public LogHistogram(double relativeAccuracy, int maxBuckets) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Точность гистограммы должна быть в интервале (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+        this.buckets = new long[maxBuckets];
+    }
+
+    public void add(long value, long times) {
+        if (value <= 0) {
+            zeroCount += times;
+        } else {
+            buckets[index(value)] += times;
+        }
+        count += times;
+    }
+
+    public void move(long from, long to) {
+        add(from, -1);
+        add(to, 1);
+    }
+
+    public long quantile(double q) {
+        if (count <= 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(q * count);
+        long seen = zeroCount;
+        if (rank <= seen) {
+            return 0;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return value(i);
+            }
+        }
+        return value(buckets.length - 1);
+    }
+
+    public long max() {
+        for (int i = buckets.length - 1; i >= 0; i--) {
+            if (buckets[i] > 0) {
+                return value(i);
+            }
+        }
+        return 0;
+    }
+
+    public void merge(LogHistogram other) {
+        if (other.buckets.length != buckets.length || other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Нельзя объединить гистограммы с разными параметрами");
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    public void clear() {
+        Arrays.fill(buckets, 0);
+        zeroCount = 0;
+        count = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public LogHistogram emptyCopy() {
+        return new LogHistogram(relativeAccuracy, buckets.length);
+    }
+
+    private int index(long value) {
+        return Math.min(buckets.length - 1, (int) Math.ceil(Math.log(value) / logGamma));
+    }
+
+    private long value(int index) {
+        if (index == 0) {
+            return 1;
+        }
+        double gamma = Math.exp(logGamma);
+        return Math.round(2 * Math.pow(gamma, index) / (gamma + 1));
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.storage.film;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface FilmStorage {
@@ -10,10 +11,24 @@ public interface FilmStorage {
 
     Film create(Film film);
 
-    Film update(Film newFilm);
+    default Film update(Film newFilm) {
+        return update(newFilm, null);
+    }
+
+    Film update(Film newFilm, Long expectedVersion);
+
+    /**
+     * Обновляет фильм и выставляет ему версию из {@code film} вместо следующей: так реплика
+     * повторяет версии ведущего узла.
+     */
+    Film replicate(Film film);
+
+    Film insert(Film film);
 
     Optional<Film> findById(Long id);
 
+    List<Film> findByIds(long[] ids);
+
     void deleteById(Long id);
 
     void clear();
@@ -1,24 +1,35 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.PreconditionFailedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.Violations;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "filmorate.storage.tiered.enabled", havingValue = "false", matchIfMissing = true)
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Long, Film> films = new HashMap<>();
-    private static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+    private volatile Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final LikeStorage likeStorage;
 
     @Override
     public Collection<Film> findAll() {
@@ -28,44 +39,61 @@ public class InMemoryFilmStorage implements FilmStorage {
 
     @Override
     public Film create(Film film) {
-        validateFilm(film);
+        check(FilmValidator.validate(film));
         film.setId(getNextId());
+        film.setVersion(1);
+        film.setLikes(likeStorage.likesOf(film.getId()));
         films.put(film.getId(), film);
         log.info("Добавлен новый фильм: {} (id={})", film.getName(), film.getId());
         return film;
     }
 
     @Override
-    public Film update(Film newFilm) {
-        if (newFilm.getId() == null || !films.containsKey(newFilm.getId())) {
-            log.warn("Ошибка обновления: фильм с id={} не найден", newFilm.getId());
-            throw new NotFoundException("Фильм с id = " + newFilm.getId() + " не найден");
-        }
+    public Film update(Film newFilm, Long expectedVersion) {
+        return update(newFilm, expectedVersion, 0);
+    }
 
-        Film oldFilm = films.get(newFilm.getId());
+    @Override
+    public Film replicate(Film film) {
+        return update(film, null, film.getVersion());
+    }
 
-        if (newFilm.getName() != null) {
-            validateName(newFilm.getName());
-            oldFilm.setName(newFilm.getName());
+    private Film update(Film newFilm, Long expectedVersion, long version) {
+        if (newFilm.getId() == null || !films.containsKey(newFilm.getId())) {
+            throw notFound(newFilm.getId());
         }
 
-        if (newFilm.getDescription() != null) {
-            validateDescription(newFilm.getDescription());
-            oldFilm.setDescription(newFilm.getDescription());
+        check(FilmValidator.validatePresent(newFilm));
+
+        while (true) {
+            Film oldFilm = films.get(newFilm.getId());
+            if (oldFilm == null) {
+                throw notFound(newFilm.getId());
+            }
+            Film updated = applyUpdate(oldFilm, newFilm, expectedVersion, version);
+
+            if (films.computeIfPresent(oldFilm.getId(), (id, current) -> current == oldFilm ? updated : current)
+                    == updated) {
+                log.info("Фильм с id={} обновлён до версии {}", updated.getId(), updated.getVersion());
+                return updated;
+            }
+            log.trace("Фильм с id={} изменён параллельно, повторяем обновление", oldFilm.getId());
         }
+    }
 
-        if (newFilm.getReleaseDate() != null) {
-            validateReleaseDate(newFilm.getReleaseDate());
-            oldFilm.setReleaseDate(newFilm.getReleaseDate());
+    @Override
+    public Film insert(Film film) {
+        if (film.getId() == null || film.getId() <= 0) {
+            throw new ValidationException("Идентификатор фильма должен быть положительным числом");
         }
-
-        if (newFilm.getDuration() != null) {
-            validateDuration(newFilm.getDuration());
-            oldFilm.setDuration(newFilm.getDuration());
+        check(FilmValidator.validate(film));
+        film.setVersion(Math.max(film.getVersion(), 1));
+        film.setLikes(likeStorage.likesOf(film.getId()));
+        if (films.putIfAbsent(film.getId(), film) != null) {
+            throw new ValidationException("Фильм с id = " + film.getId() + " уже существует");
         }
-
-        log.info("Фильм с id={} обновлён", oldFilm.getId());
-        return oldFilm;
+        lastId.accumulateAndGet(film.getId(), Math::max);
+        return film;
     }
 
     @Override
@@ -73,75 +101,79 @@ public class InMemoryFilmStorage implements FilmStorage {
         return Optional.ofNullable(films.get(id));
     }
 
+    @Override
+    public List<Film> findByIds(long[] ids) {
+        Map<Long, Film> snapshot = films;
+        List<Film> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(snapshot.get(id));
+        }
+        return result;
+    }
+
     @Override
     public void deleteById(Long id) {
-        if (!films.containsKey(id)) {
+        if (films.remove(id) == null) {
             log.warn("Попытка удалить фильм с id={}, но он не найден", id);
             throw new NotFoundException("Фильм с id = " + id + " не найден");
         }
 
-        films.remove(id);
         log.info("Фильм с id={} удалён", id);
     }
 
     @Override
     public void clear() {
-        films.clear();
+        films = new ConcurrentHashMap<>();
+        lastId.set(0);
         log.info("Все фильмы удалены. Коллекция очищена.");
     }
 
 
-    private void validateName(String name) {
-        if (name == null || name.isBlank()) {
-            log.error("Ошибка валидации: название пустое");
-            throw new ValidationException("Название не может быть пустым");
+    /**
+     * Копия {@code oldFilm} с полями из {@code newFilm}. Версия становится {@code version}, а при нуле —
+     * следующей за текущей.
+     */
+    static Film applyUpdate(Film oldFilm, Film newFilm, Long expectedVersion, long version) {
+        if (expectedVersion != null && oldFilm.getVersion() != expectedVersion) {
+            log.warn("Конфликт версий фильма id={}: ожидалась {}, текущая {}",
+                    oldFilm.getId(), expectedVersion, oldFilm.getVersion());
+            throw new PreconditionFailedException("Фильм с id = " + oldFilm.getId()
+                    + " был изменён, текущая версия " + oldFilm.getVersion(), oldFilm.getVersion());
         }
-    }
 
-    private void validateDescription(String description) {
-        if (description != null && description.length() > 200) {
-            log.error("Ошибка валидации: описание превышает 200 символов");
-            throw new ValidationException("Максимальная длина описания составляет 200 символов");
+        Film updated = oldFilm.copy();
+        if (newFilm.getName() != null) {
+            updated.setName(newFilm.getName());
         }
-    }
 
-    private void validateReleaseDate(LocalDate releaseDate) {
-        if (releaseDate == null) {
-            log.error("Ошибка валидации: дата релиза пустая");
-            throw new ValidationException("Дата релиза не может быть пустой");
+        if (newFilm.getDescription() != null) {
+            updated.setDescription(newFilm.getDescription());
         }
 
-        if (releaseDate.isBefore(MIN_RELEASE_DATE)) {
-            log.error("Ошибка валидации: дата релиза {} раньше допустимой {}", releaseDate, MIN_RELEASE_DATE);
-            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
+        if (newFilm.getReleaseDate() != null) {
+            updated.setReleaseDate(newFilm.getReleaseDate());
         }
-    }
 
-    private void validateDuration(Integer duration) {
-        if (duration == null) {
-            log.error("Ошибка валидации: продолжительность пустая");
-            throw new ValidationException("Продолжительность фильма не может быть пустой");
+        if (newFilm.getDuration() != null) {
+            updated.setDuration(newFilm.getDuration());
         }
+        updated.setVersion(version > 0 ? version : oldFilm.getVersion() + 1);
+        return updated;
+    }
 
-        if (duration <= 0) {
-            log.error("Ошибка валидации: продолжительность {} не положительная", duration);
-            throw new ValidationException("Продолжительность фильма должна быть положительным числом");
-        }
+    private NotFoundException notFound(Long id) {
+        log.warn("Ошибка обновления: фильм с id={} не найден", id);
+        return new NotFoundException("Фильм с id = " + id + " не найден");
     }
 
-    private void validateFilm(Film film) {
-        validateName(film.getName());
-        validateDescription(film.getDescription());
-        validateReleaseDate(film.getReleaseDate());
-        validateDuration(film.getDuration());
+    private void check(Violations violations) {
+        if (!violations.isEmpty()) {
+            log.error("Ошибка валидации фильма: {}", violations);
+            throw violations.toException();
+        }
     }
 
     private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        return lastId.incrementAndGet();
     }
-}
\ No newline at end of file
+}
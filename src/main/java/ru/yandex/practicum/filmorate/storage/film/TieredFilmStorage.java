@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.tiered.FilmCodec;
+import ru.yandex.practicum.filmorate.storage.tiered.PageFile;
+import ru.yandex.practicum.filmorate.storage.tiered.TieredStore;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.Violations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.tiered.enabled", havingValue = "true")
+public class TieredFilmStorage implements FilmStorage, MeterBinder {
+
+    private final TieredStore<Film> films;
+    private final AtomicLong lastId = new AtomicLong();
+    private final LikeStorage likeStorage;
+
+    public TieredFilmStorage(CascadeLock cascadeLock, LikeStorage likeStorage,
+                             @Value("${filmorate.storage.tiered.dir}") Path dir,
+                             @Value("${filmorate.storage.tiered.max-hot-films:100000}") int maxHot) {
+        this.likeStorage = likeStorage;
+        this.films = new TieredStore<>("film", new FilmCodec(likeStorage), new PageFile(dir.resolve("films.pages")),
+                maxHot, cascadeLock);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        Collection<Film> all = films.values();
+        log.info("Запрошен список всех фильмов. Количество: {}", all.size());
+        return all;
+    }
+
+    @Override
+    public Film create(Film film) {
+        check(FilmValidator.validate(film));
+        film.setId(lastId.incrementAndGet());
+        film.setVersion(1);
+        film.setLikes(likeStorage.likesOf(film.getId()));
+        films.put(film);
+        log.info("Добавлен новый фильм: {} (id={})", film.getName(), film.getId());
+        return film;
+    }
+
+    @Override
+    public Film update(Film newFilm, Long expectedVersion) {
+        return update(newFilm, expectedVersion, 0);
+    }
+
+    @Override
+    public Film replicate(Film film) {
+        return update(film, null, film.getVersion());
+    }
+
+    private Film update(Film newFilm, Long expectedVersion, long version) {
+        if (newFilm.getId() == null || films.peek(newFilm.getId()) == null) {
+            throw notFound(newFilm.getId());
+        }
+
+        check(FilmValidator.validatePresent(newFilm));
+
+        Film updated = films.update(newFilm.getId(),
+                oldFilm -> InMemoryFilmStorage.applyUpdate(oldFilm, newFilm, expectedVersion, version));
+        if (updated == null) {
+            throw notFound(newFilm.getId());
+        }
+        log.info("Фильм с id={} обновлён до версии {}", updated.getId(), updated.getVersion());
+        return updated;
+    }
+
+    @Override
+    public Film insert(Film film) {
+        if (film.getId() == null || film.getId() <= 0) {
+            throw new ValidationException("Идентификатор фильма должен быть положительным числом");
+        }
+        check(FilmValidator.validate(film));
+        film.setVersion(Math.max(film.getVersion(), 1));
+        film.setLikes(likeStorage.likesOf(film.getId()));
+        if (!films.putIfAbsent(film)) {
+            throw new ValidationException("Фильм с id = " + film.getId() + " уже существует");
+        }
+        lastId.accumulateAndGet(film.getId(), Math::max);
+        films.evictExcess();
+        return film;
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public List<Film> findByIds(long[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(films.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (!films.remove(id)) {
+            log.warn("Попытка удалить фильм с id={}, но он не найден", id);
+            throw new NotFoundException("Фильм с id = " + id + " не найден");
+        }
+
+        log.info("Фильм с id={} удалён", id);
+    }
+
+    @Override
+    public void clear() {
+        films.clear();
+        lastId.set(0);
+        log.info("Все фильмы удалены. Коллекция очищена.");
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.storage.tiered.maintenance-ms:1000}")
+    public void evictExcess() {
+        films.evictExcess();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        films.bindTo(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        films.close();
+    }
+
+    private NotFoundException notFound(Long id) {
+        log.warn("Ошибка обновления: фильм с id={} не найден", id);
+        return new NotFoundException("Фильм с id = " + id + " не найден");
+    }
+
+    private void check(Violations violations) {
+        if (!violations.isEmpty()) {
+            log.error("Ошибка валидации фильма: {}", violations);
+            throw violations.toException();
+        }
+    }
+}
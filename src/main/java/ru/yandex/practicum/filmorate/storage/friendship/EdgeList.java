@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import java.util.Arrays;
+
+class EdgeList {
+
+    private static final long CONFIRMED_BIT = 1L;
+    private static final long[] EMPTY = new long[0];
+
+    private long[] edges = new long[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int indexOf(long id) {
+        for (int i = 0; i < size; i++) {
+            if (edges[i] >>> 1 == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean isConfirmed(int index) {
+        return (edges[index] & CONFIRMED_BIT) != 0;
+    }
+
+    void add(long id, boolean confirmed) {
+        if (size == edges.length) {
+            edges = Arrays.copyOf(edges, size * 2);
+        }
+        edges[size++] = encode(id, confirmed);
+    }
+
+    void setConfirmed(int index, boolean confirmed) {
+        edges[index] = encode(edges[index] >>> 1, confirmed);
+    }
+
+    void removeAt(int index) {
+        edges[index] = edges[--size];
+    }
+
+    long[] ids() {
+        long[] result = new long[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = edges[i] >>> 1;
+        }
+        return result;
+    }
+
+    long[] ids(boolean confirmed) {
+        long wanted = confirmed ? CONFIRMED_BIT : 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((edges[i] & CONFIRMED_BIT) == wanted) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+        long[] result = new long[count];
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if ((edges[i] & CONFIRMED_BIT) == wanted) {
+                result[j++] = edges[i] >>> 1;
+            }
+        }
+        return result;
+    }
+
+    private static long encode(long id, boolean confirmed) {
+        return id << 1 | (confirmed ? CONFIRMED_BIT : 0);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface FriendshipStorage {
+    FriendshipStatus addFriend(Long userId, Long friendId);
+
+    boolean removeFriend(Long userId, Long friendId);
+
+    void addFriends(long[] userIds, long[] friendIds, int size);
+
+    Optional<FriendshipStatus> findStatus(Long userId, Long friendId);
+
+    long[] findFriendIds(Long userId);
+
+    long[] findConfirmedFriendIds(Long userId);
+
+    long[] findIncomingRequestIds(Long userId);
+
+    long[] findFollowerIds(Long userId);
+
+    /**
+     * Живое представление исходящих заявок пользователя: отражает текущее состояние хранилища, а
+     * добавление и удаление через него отправляют и отзывают заявки.
+     */
+    Set<Long> friendsOf(Long userId);
+
+    long[] removeUser(Long userId);
+
+    void clear();
+}
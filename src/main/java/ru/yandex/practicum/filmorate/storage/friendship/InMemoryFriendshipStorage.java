@@ -0,0 +1,285 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.util.IdSet;
+import ru.yandex.practicum.filmorate.util.LongSet;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class InMemoryFriendshipStorage implements FriendshipStorage {
+
+    private static final long[] EMPTY = new long[0];
+    private static final long ID_MASK = 0xFFFFFFFFL;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, EdgeList> outgoing = new HashMap<>();
+    private Map<Long, EdgeList> incoming = new HashMap<>();
+
+    @Override
+    public FriendshipStatus addFriend(Long userId, Long friendId) {
+        lock.writeLock().lock();
+        try {
+            EdgeList userOut = outgoing.computeIfAbsent(userId, id -> new EdgeList());
+            int existing = userOut.indexOf(friendId);
+            if (existing >= 0) {
+                return status(userOut.isConfirmed(existing));
+            }
+
+            EdgeList friendOut = outgoing.get(friendId);
+            int reverse = friendOut == null ? -1 : friendOut.indexOf(userId);
+            boolean confirmed = reverse >= 0;
+            if (confirmed) {
+                friendOut.setConfirmed(reverse, true);
+                EdgeList userIn = incoming.get(userId);
+                userIn.setConfirmed(userIn.indexOf(friendId), true);
+            }
+            userOut.add(friendId, confirmed);
+            incoming.computeIfAbsent(friendId, id -> new EdgeList()).add(userId, confirmed);
+            log.trace("Заявка в друзья {} -> {}: {}", userId, friendId, status(confirmed));
+            return status(confirmed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeFriend(Long userId, Long friendId) {
+        lock.writeLock().lock();
+        try {
+            EdgeList userOut = outgoing.get(userId);
+            int index = userOut == null ? -1 : userOut.indexOf(friendId);
+            if (index < 0) {
+                return false;
+            }
+            boolean confirmed = userOut.isConfirmed(index);
+            userOut.removeAt(index);
+            EdgeList friendIn = incoming.get(friendId);
+            friendIn.removeAt(friendIn.indexOf(userId));
+
+            if (confirmed) {
+                EdgeList friendOut = outgoing.get(friendId);
+                friendOut.setConfirmed(friendOut.indexOf(userId), false);
+                EdgeList userIn = incoming.get(userId);
+                userIn.setConfirmed(userIn.indexOf(friendId), false);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addFriends(long[] userIds, long[] friendIds, int size) {
+        lock.writeLock().lock();
+        try {
+            if (!outgoing.isEmpty() || !fitPacked(userIds, friendIds, size)) {
+                for (int i = 0; i < size; i++) {
+                    addFriend(userIds[i], friendIds[i]);
+                }
+                return;
+            }
+
+            long[] edges = new long[size];
+            for (int i = 0; i < size; i++) {
+                edges[i] = userIds[i] << 32 | friendIds[i];
+            }
+            Arrays.parallelSort(edges);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || edges[unique - 1] != edges[i]) {
+                    edges[unique++] = edges[i];
+                }
+            }
+
+            for (int i = 0; i < unique; i++) {
+                long userId = edges[i] >>> 32;
+                long friendId = edges[i] & ID_MASK;
+                boolean confirmed = Arrays.binarySearch(edges, 0, unique, friendId << 32 | userId) >= 0;
+                outgoing.computeIfAbsent(userId, id -> new EdgeList()).add(friendId, confirmed);
+                incoming.computeIfAbsent(friendId, id -> new EdgeList()).add(userId, confirmed);
+            }
+            log.info("Загружено {} заявок в друзья", unique);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<FriendshipStatus> findStatus(Long userId, Long friendId) {
+        lock.readLock().lock();
+        try {
+            EdgeList userOut = outgoing.get(userId);
+            int index = userOut == null ? -1 : userOut.indexOf(friendId);
+            return index < 0 ? Optional.empty() : Optional.of(status(userOut.isConfirmed(index)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] findFriendIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            EdgeList edges = outgoing.get(userId);
+            return edges == null ? EMPTY : edges.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] findConfirmedFriendIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            EdgeList edges = outgoing.get(userId);
+            return edges == null ? EMPTY : edges.ids(true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] findIncomingRequestIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            EdgeList edges = incoming.get(userId);
+            return edges == null ? EMPTY : edges.ids(false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long[] findFollowerIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            EdgeList edges = incoming.get(userId);
+            return edges == null ? EMPTY : edges.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> friendsOf(Long userId) {
+        return new UserFriends(userId);
+    }
+
+    @Override
+    public long[] removeUser(Long userId) {
+        lock.writeLock().lock();
+        try {
+            EdgeList userOut = outgoing.remove(userId);
+            EdgeList userIn = incoming.remove(userId);
+            long[] friendIds = userOut == null ? EMPTY : userOut.ids();
+            long[] followerIds = userIn == null ? EMPTY : userIn.ids();
+            for (long friendId : friendIds) {
+                EdgeList friendIn = incoming.get(friendId);
+                friendIn.removeAt(friendIn.indexOf(userId));
+            }
+            for (long followerId : followerIds) {
+                EdgeList followerOut = outgoing.get(followerId);
+                followerOut.removeAt(followerOut.indexOf(userId));
+            }
+            log.trace("Удалены связи пользователя id={}: друзей {}, подписчиков {}",
+                    userId, friendIds.length, followerIds.length);
+            return followerIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            outgoing = new HashMap<>();
+            incoming = new HashMap<>();
+            log.info("Все связи дружбы удалены");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Исходящие заявки одного пользователя поверх общих списков связей; отдельной копии не хранит.
+     */
+    private final class UserFriends extends AbstractSet<Long> implements IdSet {
+
+        private final Long userId;
+
+        private UserFriends(Long userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public int size() {
+            lock.readLock().lock();
+            try {
+                EdgeList edges = outgoing.get(userId);
+                return edges == null ? 0 : edges.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Long friendId && findStatus(userId, friendId).isPresent();
+        }
+
+        @Override
+        public long[] toLongArray() {
+            return findFriendIds(userId);
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            return new LongSet.SnapshotIterator(this, toLongArray());
+        }
+
+        @Override
+        public boolean add(Long friendId) {
+            lock.writeLock().lock();
+            try {
+                if (contains(friendId)) {
+                    return false;
+                }
+                addFriend(userId, friendId);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return o instanceof Long friendId && removeFriend(userId, friendId);
+        }
+    }
+
+    private static boolean fitPacked(long[] userIds, long[] friendIds, int size) {
+        for (int i = 0; i < size; i++) {
+            if (userIds[i] > Integer.MAX_VALUE || friendIds[i] > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FriendshipStatus status(boolean confirmed) {
+        return confirmed ? FriendshipStatus.CONFIRMED : FriendshipStatus.UNCONFIRMED;
+    }
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.util.IdSet;
+import ru.yandex.practicum.filmorate.util.LongSet;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Лайки в обе стороны: пользователи фильма и фильмы пользователя, каждая связь — по одному {@code long} в
+ * {@link LongSet}. Пара множеств меняется под монитором множества фильма, поэтому добавление и удаление
+ * одного лайка атомарны. Удаление фильма или пользователя и очистка выполняются под исключительной
+ * блокировкой {@code CascadeLock}, параллельно с ними лайки не меняются.
+ */
+@Slf4j
+@Component
+public class InMemoryLikeStorage implements LikeStorage {
+
+    private volatile Index index = new Index();
+
+    @Override
+    public boolean addLike(Long filmId, Long userId) {
+        Index current = index;
+        LongSet users = current.usersByFilm.computeIfAbsent(filmId, id -> new LongSet());
+        synchronized (users) {
+            if (!users.add(userId.longValue())) {
+                return false;
+            }
+            current.filmsByUser.computeIfAbsent(userId, id -> new LongSet()).add(filmId.longValue());
+            return true;
+        }
+    }
+
+    @Override
+    public boolean removeLike(Long filmId, Long userId) {
+        Index current = index;
+        LongSet users = current.usersByFilm.get(filmId);
+        if (users == null) {
+            return false;
+        }
+        synchronized (users) {
+            if (!users.remove(userId.longValue())) {
+                return false;
+            }
+            LongSet films = current.filmsByUser.get(userId);
+            if (films != null) {
+                films.remove(filmId.longValue());
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public Set<Long> likesOf(Long filmId) {
+        return new FilmLikes(filmId);
+    }
+
+    @Override
+    public Set<Long> removeFilm(Long filmId) {
+        Index current = index;
+        LongSet users = current.usersByFilm.remove(filmId);
+        if (users == null) {
+            return Set.of();
+        }
+        for (long userId : users.toLongArray()) {
+            LongSet films = current.filmsByUser.get(userId);
+            if (films != null) {
+                films.remove(filmId.longValue());
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public Set<Long> removeUser(Long userId) {
+        Index current = index;
+        LongSet films = current.filmsByUser.remove(userId);
+        if (films == null) {
+            return Set.of();
+        }
+        for (long filmId : films.toLongArray()) {
+            LongSet users = current.usersByFilm.get(filmId);
+            if (users != null) {
+                users.remove(userId.longValue());
+            }
+        }
+        return films;
+    }
+
+    @Override
+    public void clear() {
+        index = new Index();
+        log.info("Все лайки удалены");
+    }
+
+    private static final class Index {
+        private final ConcurrentHashMap<Long, LongSet> usersByFilm = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, LongSet> filmsByUser = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Лайки одного фильма. Каждый вызов читает текущий индекс, поэтому после {@link #clear()} все фильмы
+     * сразу видят пустые множества.
+     */
+    private final class FilmLikes extends AbstractSet<Long> implements IdSet {
+
+        private final Long filmId;
+
+        private FilmLikes(Long filmId) {
+            this.filmId = filmId;
+        }
+
+        @Override
+        public int size() {
+            LongSet users = index.usersByFilm.get(filmId);
+            return users == null ? 0 : users.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            LongSet users = index.usersByFilm.get(filmId);
+            return users != null && users.contains(o);
+        }
+
+        @Override
+        public long[] toLongArray() {
+            LongSet users = index.usersByFilm.get(filmId);
+            return users == null ? new long[0] : users.toLongArray();
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            return new LongSet.SnapshotIterator(this, toLongArray());
+        }
+
+        @Override
+        public boolean add(Long userId) {
+            return addLike(filmId, userId);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return o instanceof Long userId && removeLike(filmId, userId);
+        }
+    }
+}
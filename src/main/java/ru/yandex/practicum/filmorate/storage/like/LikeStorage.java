@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import java.util.Set;
+
+public interface LikeStorage {
+    boolean addLike(Long filmId, Long userId);
+
+    boolean removeLike(Long filmId, Long userId);
+
+    /**
+     * Живое представление лайков фильма: отражает текущее состояние хранилища, а изменения через
+     * него применяются к хранилищу.
+     */
+    Set<Long> likesOf(Long filmId);
+
+    Set<Long> removeFilm(Long filmId);
+
+    Set<Long> removeUser(Long userId);
+
+    void clear();
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface EntityCodec<T> {
+
+    long id(T entity);
+
+    void write(T entity, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
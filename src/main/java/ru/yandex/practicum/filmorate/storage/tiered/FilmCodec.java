@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+public class FilmCodec implements EntityCodec<Film> {
+
+    private static final MpaRating[] MPA_RATINGS = MpaRating.values();
+
+    private final LikeStorage likeStorage;
+
+    public FilmCodec(LikeStorage likeStorage) {
+        this.likeStorage = likeStorage;
+    }
+
+    @Override
+    public long id(Film film) {
+        return film.getId();
+    }
+
+    @Override
+    public void write(Film film, DataOutput out) throws IOException {
+        out.writeLong(film.getId());
+        Codecs.writeVarLong(out, film.getVersion());
+        Codecs.writeString(out, film.getName());
+        Codecs.writeString(out, film.getDescription());
+        out.writeInt(film.getReleaseDate() == null ? Codecs.ABSENT : (int) film.getReleaseDate().toEpochDay());
+        out.writeInt(film.getDuration() == null ? Codecs.ABSENT : film.getDuration());
+        out.writeByte(film.getMpa() == null ? -1 : film.getMpa().ordinal());
+        Codecs.writeVarLong(out, film.getGenreMask());
+    }
+
+    @Override
+    public Film read(DataInput in) throws IOException {
+        Film film = new Film();
+        film.setId(in.readLong());
+        film.setVersion(Codecs.readVarLong(in));
+        film.setName(Codecs.readString(in));
+        film.setDescription(Codecs.readString(in));
+        int releaseDay = in.readInt();
+        film.setReleaseDate(releaseDay == Codecs.ABSENT ? null : LocalDate.ofEpochDay(releaseDay));
+        int duration = in.readInt();
+        film.setDuration(duration == Codecs.ABSENT ? null : duration);
+        int mpa = in.readByte();
+        film.setMpa(mpa < 0 ? null : MPA_RATINGS[mpa]);
+        film.setGenreMask(Codecs.readVarLong(in));
+        film.setLikes(likeStorage.likesOf(film.getId()));
+        return film;
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл вытесненных записей: каждая запись — длина и байты, добавляется в конец.
+ * Не потокобезопасен, доступ синхронизирует владелец.
+ */
+public class PageFile implements AutoCloseable {
+
+    private static final int HEADER = Integer.BYTES;
+
+    private final Path path;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER);
+    private FileChannel channel;
+    private long size;
+
+    public PageFile(Path path) {
+        this.path = path;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long append(byte[] payload) {
+        long offset = size;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + payload.length).putInt(payload.length).put(payload).flip();
+        write(channel, buffer, offset);
+        size += buffer.capacity();
+        return offset;
+    }
+
+    public byte[] read(long offset) {
+        header.clear();
+        readFully(header, offset);
+        ByteBuffer payload = ByteBuffer.allocate(header.flip().getInt());
+        readFully(payload, offset + HEADER);
+        return payload.array();
+    }
+
+    public int recordSize(long offset) {
+        header.clear();
+        readFully(header, offset);
+        return HEADER + header.flip().getInt();
+    }
+
+    /**
+     * Переписывает живые записи подряд в новый файл и возвращает их новые смещения в том же порядке.
+     */
+    public long[] compact(long[] offsets) {
+        Path target = path.resolveSibling(path.getFileName() + ".compact");
+        long[] moved = new long[offsets.length];
+        try (FileChannel out = open(target)) {
+            long position = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                byte[] payload = read(offsets[i]);
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER + payload.length).putInt(payload.length).put(payload)
+                        .flip();
+                write(out, buffer, position);
+                moved[i] = position;
+                position += buffer.capacity();
+            }
+            channel.close();
+            Files.move(target, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return moved;
+    }
+
+    public void truncate() {
+        try {
+            channel.truncate(0);
+            size = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) {
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Неожиданный конец файла " + path + " на смещении " + offset);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(FileChannel target, ByteBuffer buffer, long offset) {
+        try {
+            while (buffer.hasRemaining()) {
+                target.write(buffer, offset + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
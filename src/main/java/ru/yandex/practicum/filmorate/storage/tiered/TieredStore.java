@@ -0,0 +1,385 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Двухуровневое хранилище: горячие сущности лежат в памяти в пределах бюджета, холодные вытесняются в
+ * {@link PageFile} компактной двоичной записью и поднимаются обратно при обращении.
+ *
+ * <p>Чтение горячей сущности и её обновление через {@link #update} обходятся без блокировок.
+ * Загрузка, вытеснение и индекс холодных записей защищены монитором хранилища. Вытеснение
+ * выполняется только под исключительной блокировкой {@link CascadeLock} и никогда изнутри каскадной
+ * операции, поэтому не отнимает сущность у сервиса, который меняет её лайки или друзей.
+ *
+ * <p>Лайки и друзья в запись не входят и на диск не вытесняются: они хранятся в хранилищах связей по
+ * {@code long} на связь в каждую сторону, а кодек при загрузке подключает к сущности их представление.
+ * Так связи холодной записи не устаревают: удаление пользователя или очистка связей видны ей сразу,
+ * без перезаписи файла. Объём связей в памяти ограничен их числом, а не бюджетом горячих сущностей.
+ */
+@Slf4j
+public class TieredStore<T> {
+
+    private static final Object EVICTED = new Object();
+    private static final double LOW_WATERMARK = 0.9;
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final String name;
+    private final EntityCodec<T> codec;
+    private final PageFile file;
+    private final int maxHot;
+    private final CascadeLock cascadeLock;
+
+    private volatile ConcurrentHashMap<Long, Slot> hot = new ConcurrentHashMap<>();
+    private final LongLongHashMap cold = new LongLongHashMap(1024);
+    private final AtomicLong clock = new AtomicLong();
+    private long liveBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TieredStore(String name, EntityCodec<T> codec, PageFile file, int maxHot, CascadeLock cascadeLock) {
+        this.name = name;
+        this.codec = codec;
+        this.file = file;
+        this.maxHot = Math.max(1, maxHot);
+        this.cascadeLock = cascadeLock;
+    }
+
+    public T get(long id) {
+        Slot slot = hot.get(id);
+        if (slot != null) {
+            Object value = slot.get();
+            if (value != EVICTED) {
+                slot.lastAccess = clock.get();
+                hits.increment();
+                return cast(value);
+            }
+        }
+        T loaded = load(id);
+        if (loaded != null) {
+            evictExcess();
+        }
+        return loaded;
+    }
+
+    /**
+     * Читает сущность, не поднимая холодную запись в память. Возвращённый объект холодной записи —
+     * отдельная копия, изменения в нём не сохраняются.
+     */
+    public T peek(long id) {
+        Slot slot = hot.get(id);
+        if (slot != null) {
+            Object value = slot.get();
+            if (value != EVICTED) {
+                return cast(value);
+            }
+        }
+        synchronized (this) {
+            slot = hot.get(id);
+            if (slot != null) {
+                return cast(slot.get());
+            }
+            long offset = cold.get(id, -1);
+            return offset < 0 ? null : decode(offset);
+        }
+    }
+
+    public void put(T entity) {
+        hot.put(codec.id(entity), new Slot(entity, clock.incrementAndGet()));
+        evictExcess();
+    }
+
+    public synchronized boolean putIfAbsent(T entity) {
+        long id = codec.id(entity);
+        if (cold.containsKey(id) || hot.putIfAbsent(id, new Slot(entity, clock.incrementAndGet())) != null) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Заменяет текущую версию результатом {@code change}, повторяя попытку, если версию заменили
+     * параллельно или вытеснили. Возвращает {@code null}, если сущности нет.
+     */
+    public T update(long id, UnaryOperator<T> change) {
+        while (true) {
+            Slot slot = hot.get(id);
+            Object current = slot == null ? EVICTED : slot.get();
+            if (current == EVICTED) {
+                if (load(id) == null) {
+                    return null;
+                }
+                continue;
+            }
+            T next = change.apply(cast(current));
+            if (slot.compareAndSet(current, next)) {
+                slot.lastAccess = clock.incrementAndGet();
+                return next;
+            }
+        }
+    }
+
+    public synchronized boolean remove(long id) {
+        Slot slot = hot.remove(id);
+        if (slot != null) {
+            slot.set(EVICTED);
+            return true;
+        }
+        long offset = cold.remove(id, -1);
+        if (offset < 0) {
+            return false;
+        }
+        liveBytes -= file.recordSize(offset);
+        return true;
+    }
+
+    public synchronized void clear() {
+        ConcurrentHashMap<Long, Slot> previous = hot;
+        hot = new ConcurrentHashMap<>();
+        previous.values().forEach(slot -> slot.set(EVICTED));
+        cold.clear();
+        file.truncate();
+        liveBytes = 0;
+    }
+
+    public synchronized int size() {
+        return hot.size() + cold.size();
+    }
+
+    public int hotSize() {
+        return hot.size();
+    }
+
+    /**
+     * Слабо согласованное представление всех сущностей: горячие отдаются как есть, холодные
+     * декодируются по одной при обходе и в памяти не задерживаются.
+     */
+    public synchronized AbstractCollection<T> values() {
+        List<T> hotValues = new ArrayList<>(hot.size());
+        for (Slot slot : hot.values()) {
+            Object value = slot.get();
+            if (value != EVICTED) {
+                hotValues.add(cast(value));
+            }
+        }
+        long[] coldIds = new long[cold.size()];
+        int[] count = new int[1];
+        cold.forEach((id, offset) -> coldIds[count[0]++] = id);
+        int total = hotValues.size() + coldIds.length;
+
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Iterator<>() {
+                    private int index;
+                    private T next = advance();
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public T next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        T result = next;
+                        next = advance();
+                        return result;
+                    }
+
+                    private T advance() {
+                        while (index < total) {
+                            int i = index++;
+                            T value = i < hotValues.size() ? hotValues.get(i) : peek(coldIds[i - hotValues.size()]);
+                            if (value != null) {
+                                return value;
+                            }
+                        }
+                        return null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return total;
+            }
+        };
+    }
+
+    public void evictExcess() {
+        if (hot.size() <= maxHot || !cascadeLock.tryExclusiveIdle()) {
+            return;
+        }
+        try {
+            evict();
+        } finally {
+            cascadeLock.exclusive().unlock();
+        }
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.storage.hits", hits, LongAdder::sum)
+                .description("Обращения к сущностям, найденным в памяти")
+                .tag("storage", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.storage.misses", misses, LongAdder::sum)
+                .description("Обращения, потребовавшие загрузки с диска")
+                .tag("storage", name)
+                .register(registry);
+        FunctionCounter.builder("filmorate.storage.evictions", evictions, LongAdder::sum)
+                .description("Сущности, вытесненные на диск")
+                .tag("storage", name)
+                .register(registry);
+        Gauge.builder("filmorate.storage.hot", this, TieredStore::hotSize)
+                .description("Сущности в памяти")
+                .tag("storage", name)
+                .register(registry);
+        Gauge.builder("filmorate.storage.page-file.bytes", this, store -> store.fileSize())
+                .description("Размер файла вытесненных записей")
+                .tag("storage", name)
+                .register(registry);
+    }
+
+    public void close() {
+        file.close();
+    }
+
+    private synchronized long fileSize() {
+        return file.size();
+    }
+
+    private synchronized T load(long id) {
+        Slot slot = hot.get(id);
+        if (slot != null) {
+            Object value = slot.get();
+            if (value != EVICTED) {
+                return cast(value);
+            }
+        }
+        long offset = cold.remove(id, -1);
+        if (offset < 0) {
+            return null;
+        }
+        misses.increment();
+        liveBytes -= file.recordSize(offset);
+        T value = decode(offset);
+        hot.put(id, new Slot(value, clock.incrementAndGet()));
+        return value;
+    }
+
+    private synchronized void evict() {
+        int target = (int) (maxHot * LOW_WATERMARK);
+        int excess = hot.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(hot.size());
+        hot.forEach((id, slot) -> candidates.add(new Candidate(id, slot, slot.lastAccess)));
+        candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+
+        int evicted = 0;
+        for (int i = 0; i < candidates.size() && evicted < excess; i++) {
+            Candidate candidate = candidates.get(i);
+            Object value = candidate.slot().get();
+            if (value == EVICTED) {
+                continue;
+            }
+            byte[] record = encode(cast(value));
+            long offset = file.append(record);
+            if (candidate.slot().compareAndSet(value, EVICTED)) {
+                hot.remove(candidate.id(), candidate.slot());
+                cold.put(candidate.id(), offset);
+                liveBytes += Integer.BYTES + record.length;
+                evicted++;
+            }
+        }
+        evictions.add(evicted);
+        log.debug("Хранилище {}: вытеснено на диск {}, в памяти {}, на диске {}", name, evicted, hot.size(),
+                cold.size());
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (file.size() < MIN_COMPACT_BYTES || file.size() < 2 * liveBytes) {
+            return;
+        }
+        long[] ids = new long[cold.size()];
+        long[] offsets = new long[cold.size()];
+        int[] count = new int[1];
+        cold.forEach((id, offset) -> {
+            ids[count[0]] = id;
+            offsets[count[0]++] = offset;
+        });
+        long before = file.size();
+        long[] moved = file.compact(offsets);
+        for (int i = 0; i < ids.length; i++) {
+            cold.put(ids[i], moved[i]);
+        }
+        liveBytes = file.size();
+        log.debug("Хранилище {}: файл сжат с {} до {} байт", name, before, file.size());
+    }
+
+    private byte[] encode(T entity) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            codec.write(entity, out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private T decode(long offset) {
+        try {
+            return codec.read(new DataInputStream(new ByteArrayInputStream(file.read(offset))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private record Candidate(long id, Slot slot, long lastAccess) {
+    }
+
+    private static final class Slot extends AtomicReference<Object> {
+        private long lastAccess;
+
+        private Slot(Object value, long lastAccess) {
+            super(value);
+            this.lastAccess = lastAccess;
+        }
+    }
+}
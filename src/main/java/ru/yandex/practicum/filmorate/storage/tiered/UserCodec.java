@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+public class UserCodec implements EntityCodec<User> {
+
+    private final FriendshipStorage friendshipStorage;
+
+    public UserCodec(FriendshipStorage friendshipStorage) {
+        this.friendshipStorage = friendshipStorage;
+    }
+
+    @Override
+    public long id(User user) {
+        return user.getId();
+    }
+
+    @Override
+    public void write(User user, DataOutput out) throws IOException {
+        out.writeLong(user.getId());
+        Codecs.writeVarLong(out, user.getVersion());
+        Codecs.writeString(out, user.getEmail());
+        Codecs.writeString(out, user.getLogin());
+        Codecs.writeString(out, user.getName());
+        out.writeInt(user.getBirthday() == null ? Codecs.ABSENT : (int) user.getBirthday().toEpochDay());
+    }
+
+    @Override
+    public User read(DataInput in) throws IOException {
+        User user = new User();
+        user.setId(in.readLong());
+        user.setVersion(Codecs.readVarLong(in));
+        user.setEmail(Codecs.readString(in));
+        user.setLogin(Codecs.readString(in));
+        user.setName(Codecs.readString(in));
+        int birthday = in.readInt();
+        user.setBirthday(birthday == Codecs.ABSENT ? null : LocalDate.ofEpochDay(birthday));
+        user.setFriends(friendshipStorage.friendsOf(user.getId()));
+        return user;
+    }
+}
@@ -1,23 +1,35 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.PreconditionFailedException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+import ru.yandex.practicum.filmorate.validation.Violations;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "filmorate.storage.tiered.enabled", havingValue = "false", matchIfMissing = true)
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Long, User> users = new HashMap<>();
+    private volatile Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final FriendshipStorage friendshipStorage;
 
     @Override
     public Collection<User> findAll() {
@@ -27,52 +39,71 @@ public class InMemoryUserStorage implements UserStorage {
 
     @Override
     public User create(User user) {
-        validateUser(user);
+        check(UserValidator.validate(user));
 
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
         }
 
         user.setId(getNextId());
+        user.setVersion(1);
+        user.setFriends(friendshipStorage.friendsOf(user.getId()));
         users.put(user.getId(), user);
         log.info("Добавлен новый пользователь: {} (id={}", user.getName(), user.getId());
         return user;
     }
 
     @Override
-    public User update(User newUser) {
+    public User update(User newUser, Long expectedVersion) {
+        return update(newUser, expectedVersion, 0);
+    }
+
+    @Override
+    public User replicate(User user) {
+        return update(user, null, user.getVersion());
+    }
+
+    private User update(User newUser, Long expectedVersion, long version) {
         if (newUser.getId() == null || !users.containsKey(newUser.getId())) {
-            log.warn("Ошибка обновления: пользователь с id={} не найден", newUser.getId());
-            throw new NotFoundException("Пользователь с id = " + newUser.getId() + " не найден");
+            throw notFound(newUser.getId());
         }
 
-        User oldUser = users.get(newUser.getId());
+        check(UserValidator.validatePresent(newUser));
 
-        if (newUser.getEmail() != null) {
-            validateEmail(newUser.getEmail());
-            oldUser.setEmail(newUser.getEmail());
-        }
+        while (true) {
+            User oldUser = users.get(newUser.getId());
+            if (oldUser == null) {
+                throw notFound(newUser.getId());
+            }
+            User updated = applyUpdate(oldUser, newUser, expectedVersion, version);
 
-        if (newUser.getLogin() != null) {
-            validateLogin(newUser.getLogin());
-            oldUser.setLogin(newUser.getLogin());
+            if (users.computeIfPresent(oldUser.getId(), (id, current) -> current == oldUser ? updated : current)
+                    == updated) {
+                log.info("Пользователь с id={} обновлён до версии {}", updated.getId(), updated.getVersion());
+                return updated;
+            }
+            log.trace("Пользователь с id={} изменён параллельно, повторяем обновление", oldUser.getId());
         }
+    }
 
-        if (newUser.getName() != null) {
-            if (newUser.getName().isBlank()) {
-                oldUser.setName(oldUser.getLogin());
-            } else {
-                oldUser.setName(newUser.getName());
-            }
+    @Override
+    public User insert(User user) {
+        if (user.getId() == null || user.getId() <= 0) {
+            throw new ValidationException("Идентификатор пользователя должен быть положительным числом");
         }
+        check(UserValidator.validate(user));
 
-        if (newUser.getBirthday() != null) {
-            validateBirthday(newUser.getBirthday());
-            oldUser.setBirthday(newUser.getBirthday());
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
         }
 
-        log.info("Пользователь с id={} обновлён", oldUser.getId());
-        return oldUser;
+        user.setVersion(Math.max(user.getVersion(), 1));
+        user.setFriends(friendshipStorage.friendsOf(user.getId()));
+        if (users.putIfAbsent(user.getId(), user) != null) {
+            throw new ValidationException("Пользователь с id = " + user.getId() + " уже существует");
+        }
+        lastId.accumulateAndGet(user.getId(), Math::max);
+        return user;
     }
 
     @Override
@@ -80,68 +111,82 @@ public class InMemoryUserStorage implements UserStorage {
         return Optional.ofNullable(users.get(id));
     }
 
+    @Override
+    public List<User> findByIds(long[] ids) {
+        Map<Long, User> snapshot = users;
+        List<User> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(snapshot.get(id));
+        }
+        return result;
+    }
+
     @Override
     public void deleteById(Long id) {
-        if (!users.containsKey(id)) {
+        if (users.remove(id) == null) {
             log.warn("Попытка удалить пользователя с id={}, но он не найден", id);
             throw new NotFoundException("Пользователь с id = " + id + " не найден");
         }
 
-        users.remove(id);
         log.info("Пользователь с id={} удалён", id);
     }
 
     @Override
     public void clear() {
-        users.clear();
+        users = new ConcurrentHashMap<>();
+        lastId.set(0);
         log.info("Все пользователи удалены. Коллекция очищена.");
     }
 
-    private void validateEmail(String email) {
-        if (email == null || email.isBlank()) {
-            log.error("Ошибка валидации: электронная почта пустая");
-            throw new ValidationException("Электронная почта не может быть пустой");
+    /**
+     * Копия {@code oldUser} с полями из {@code newUser}. Версия становится {@code version}, а при нуле —
+     * следующей за текущей.
+     */
+    static User applyUpdate(User oldUser, User newUser, Long expectedVersion, long version) {
+        if (expectedVersion != null && oldUser.getVersion() != expectedVersion) {
+            log.warn("Конфликт версий пользователя id={}: ожидалась {}, текущая {}",
+                    oldUser.getId(), expectedVersion, oldUser.getVersion());
+            throw new PreconditionFailedException("Пользователь с id = " + oldUser.getId()
+                    + " был изменён, текущая версия " + oldUser.getVersion(), oldUser.getVersion());
         }
-        if (!email.contains("@")) {
-            log.error("Ошибка валидации: электронная почта {} не содержит @", email);
-            throw new ValidationException("Электронная почта должна содержать символ @");
-        }
-    }
 
-    private void validateLogin(String login) {
-        if (login == null || login.isBlank()) {
-            log.error("Ошибка валидации: логин пустой");
-            throw new ValidationException("Логин не может быть пустым");
+        User updated = oldUser.copy();
+        if (newUser.getEmail() != null) {
+            updated.setEmail(newUser.getEmail());
         }
-        if (login.contains(" ")) {
-            log.error("Ошибка валидации: логин {} содержит пробелы", login);
-            throw new ValidationException("Логин не может содержать пробелы");
+
+        if (newUser.getLogin() != null) {
+            updated.setLogin(newUser.getLogin());
         }
-    }
 
-    private void validateBirthday(LocalDate birthday) {
-        if (birthday == null) {
-            log.error("Ошибка валидации: дата рождения отсутствует");
-            throw new ValidationException("Дата рождения не может быть пустой");
+        if (newUser.getName() != null) {
+            if (newUser.getName().isBlank()) {
+                updated.setName(updated.getLogin());
+            } else {
+                updated.setName(newUser.getName());
+            }
         }
-        if (birthday.isAfter(LocalDate.now())) {
-            log.error("Ошибка валидации: дата рождения {} позже текущей {}", birthday, LocalDate.now());
-            throw new ValidationException("Дата рождения не может быть в будущем");
+
+        if (newUser.getBirthday() != null) {
+            updated.setBirthday(newUser.getBirthday());
         }
+        updated.setVersion(version > 0 ? version : oldUser.getVersion() + 1);
+        return updated;
     }
 
-    private void validateUser(User user) {
-        validateEmail(user.getEmail());
-        validateLogin(user.getLogin());
-        validateBirthday(user.getBirthday());
+    private NotFoundException notFound(Long id) {
+        log.warn("Ошибка обновления: пользователь с id={} не найден", id);
+        return new NotFoundException("Пользователь с id = " + id + " не найден");
+    }
+
+    private void check(Violations violations) {
+        if (!violations.isEmpty()) {
+            log.error("Ошибка валидации пользователя: {}", violations);
+            throw violations.toException();
+        }
     }
 
     private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        return lastId.incrementAndGet();
     }
 }
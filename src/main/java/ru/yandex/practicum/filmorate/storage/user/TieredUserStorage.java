@@ -0,0 +1,173 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.tiered.PageFile;
+import ru.yandex.practicum.filmorate.storage.tiered.TieredStore;
+import ru.yandex.practicum.filmorate.storage.tiered.UserCodec;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+import ru.yandex.practicum.filmorate.validation.Violations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.tiered.enabled", havingValue = "true")
+public class TieredUserStorage implements UserStorage, MeterBinder {
+
+    private final TieredStore<User> users;
+    private final AtomicLong lastId = new AtomicLong();
+    private final FriendshipStorage friendshipStorage;
+
+    public TieredUserStorage(CascadeLock cascadeLock, FriendshipStorage friendshipStorage,
+                             @Value("${filmorate.storage.tiered.dir}") Path dir,
+                             @Value("${filmorate.storage.tiered.max-hot-users:100000}") int maxHot) {
+        this.friendshipStorage = friendshipStorage;
+        this.users = new TieredStore<>("user", new UserCodec(friendshipStorage), new PageFile(dir.resolve("users.pages")),
+                maxHot, cascadeLock);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        Collection<User> all = users.values();
+        log.info("Запрошен список всех пользователей. Количество: {}", all.size());
+        return all;
+    }
+
+    @Override
+    public User create(User user) {
+        check(UserValidator.validate(user));
+
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+
+        user.setId(lastId.incrementAndGet());
+        user.setVersion(1);
+        user.setFriends(friendshipStorage.friendsOf(user.getId()));
+        users.put(user);
+        log.info("Добавлен новый пользователь: {} (id={})", user.getName(), user.getId());
+        return user;
+    }
+
+    @Override
+    public User update(User newUser, Long expectedVersion) {
+        return update(newUser, expectedVersion, 0);
+    }
+
+    @Override
+    public User replicate(User user) {
+        return update(user, null, user.getVersion());
+    }
+
+    private User update(User newUser, Long expectedVersion, long version) {
+        if (newUser.getId() == null || users.peek(newUser.getId()) == null) {
+            throw notFound(newUser.getId());
+        }
+
+        check(UserValidator.validatePresent(newUser));
+
+        User updated = users.update(newUser.getId(),
+                oldUser -> InMemoryUserStorage.applyUpdate(oldUser, newUser, expectedVersion, version));
+        if (updated == null) {
+            throw notFound(newUser.getId());
+        }
+        log.info("Пользователь с id={} обновлён до версии {}", updated.getId(), updated.getVersion());
+        return updated;
+    }
+
+    @Override
+    public User insert(User user) {
+        if (user.getId() == null || user.getId() <= 0) {
+            throw new ValidationException("Идентификатор пользователя должен быть положительным числом");
+        }
+        check(UserValidator.validate(user));
+
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+
+        user.setVersion(Math.max(user.getVersion(), 1));
+        user.setFriends(friendshipStorage.friendsOf(user.getId()));
+        if (!users.putIfAbsent(user)) {
+            throw new ValidationException("Пользователь с id = " + user.getId() + " уже существует");
+        }
+        lastId.accumulateAndGet(user.getId(), Math::max);
+        users.evictExcess();
+        return user;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public List<User> findByIds(long[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(users.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (!users.remove(id)) {
+            log.warn("Попытка удалить пользователя с id={}, но он не найден", id);
+            throw new NotFoundException("Пользователь с id = " + id + " не найден");
+        }
+
+        log.info("Пользователь с id={} удалён", id);
+    }
+
+    @Override
+    public void clear() {
+        users.clear();
+        lastId.set(0);
+        log.info("Все пользователи удалены. Коллекция очищена.");
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.storage.tiered.maintenance-ms:1000}")
+    public void evictExcess() {
+        users.evictExcess();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        users.bindTo(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        users.close();
+    }
+
+    private NotFoundException notFound(Long id) {
+        log.warn("Ошибка обновления: пользователь с id={} не найден", id);
+        return new NotFoundException("Пользователь с id = " + id + " не найден");
+    }
+
+    private void check(Violations violations) {
+        if (!violations.isEmpty()) {
+            log.error("Ошибка валидации пользователя: {}", violations);
+            throw violations.toException();
+        }
+    }
+}
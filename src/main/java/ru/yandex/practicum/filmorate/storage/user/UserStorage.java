@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserStorage {
@@ -10,10 +11,24 @@ public interface UserStorage {
 
     User create(User user);
 
-    User update(User user);
+    default User update(User user) {
+        return update(user, null);
+    }
+
+    User update(User user, Long expectedVersion);
+
+    /**
+     * Обновляет пользователя и выставляет ему версию из {@code user} вместо следующей: так реплика
+     * повторяет версии ведущего узла.
+     */
+    User replicate(User user);
+
+    User insert(User user);
 
     Optional<User> findById(Long id);
 
+    List<User> findByIds(long[] ids);
+
     void deleteById(Long id);
 
     void clear();
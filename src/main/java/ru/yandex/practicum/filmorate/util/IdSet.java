@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Set;
+
+/**
+ * Множество id, которое умеет отдать свои элементы массивом без упаковки в {@link Long}.
+ */
+public interface IdSet extends Set<Long> {
+
+    long[] toLongArray();
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+public class LongArrayList {
+
+    private long[] elements;
+    private int size;
+
+    public LongArrayList(int initialCapacity) {
+        elements = new long[Math.max(4, initialCapacity)];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = value;
+    }
+
+    public long get(int index) {
+        return elements[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+public class LongLongHashMap {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int[] stamps;
+    private int stamp = 1;
+    private int size;
+    private int mask;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return slot(key) >= 0;
+    }
+
+    public long get(long key, long defaultValue) {
+        int slot = slot(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+
+    public boolean putIfAbsent(long key, long value) {
+        if (size >= keys.length * LOAD_FACTOR) {
+            grow();
+        }
+        int index = mix(key) & mask;
+        while (stamps[index] == stamp) {
+            if (keys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        stamps[index] = stamp;
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    public void put(long key, long value) {
+        int slot = slot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+        } else {
+            putIfAbsent(key, value);
+        }
+    }
+
+    public long addTo(long key, long delta) {
+        int slot = slot(key);
+        if (slot >= 0) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        putIfAbsent(key, delta);
+        return delta;
+    }
+
+    public long remove(long key, long defaultValue) {
+        int gap = slot(key);
+        if (gap < 0) {
+            return defaultValue;
+        }
+        long removed = values[gap];
+        int index = (gap + 1) & mask;
+        while (stamps[index] == stamp) {
+            int home = mix(keys[index]) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        stamps[gap] = 0;
+        size--;
+        return removed;
+    }
+
+    public void forEach(LongLongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (stamps[i] == stamp) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        int index = mix(key) & mask;
+        while (stamps[index] == stamp) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] oldStamps = stamps;
+        int oldStamp = stamp;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == oldStamp) {
+                putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        stamps = new int[capacity];
+        stamp = 1;
+        mask = capacity - 1;
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
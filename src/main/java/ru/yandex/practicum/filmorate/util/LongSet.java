@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Потокобезопасное множество id на открытой адресации: элемент занимает 8 байт в массиве вместо узла
+ * хеш-таблицы и упакованного {@link Long}. Ноль служит пустой ячейкой, поэтому хранить его нельзя.
+ * Итератор обходит снимок, сделанный при его создании.
+ */
+public class LongSet extends AbstractSet<Long> implements IdSet {
+
+    private static final int MIN_CAPACITY = 4;
+    private static final long[] EMPTY = new long[0];
+
+    private long[] slots = EMPTY;
+    private int size;
+
+    public synchronized boolean add(long id) {
+        if (id == 0) {
+            throw new IllegalArgumentException("Идентификатор 0 не может храниться в множестве");
+        }
+        if (size >= slots.length - (slots.length >>> 2)) {
+            resize(Math.max(MIN_CAPACITY, slots.length * 2));
+        }
+        int index = indexFor(slots, id);
+        if (slots[index] == id) {
+            return false;
+        }
+        slots[index] = id;
+        size++;
+        return true;
+    }
+
+    public synchronized boolean remove(long id) {
+        if (size == 0 || id == 0) {
+            return false;
+        }
+        int gap = indexFor(slots, id);
+        if (slots[gap] != id) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int index = (gap + 1) & mask;
+        while (slots[index] != 0) {
+            int home = mix(slots[index]) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                slots[gap] = slots[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public synchronized boolean contains(long id) {
+        return size > 0 && id != 0 && slots[indexFor(slots, id)] == id;
+    }
+
+    @Override
+    public synchronized long[] toLongArray() {
+        long[] result = new long[size];
+        int count = 0;
+        for (long id : slots) {
+            if (id != 0) {
+                result[count++] = id;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Long id) {
+        return add(id.longValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long id && remove(id.longValue());
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long id && contains(id.longValue());
+    }
+
+    @Override
+    public synchronized void clear() {
+        slots = EMPTY;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new SnapshotIterator(this, toLongArray());
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        for (long id : slots) {
+            if (id != 0) {
+                resized[indexFor(resized, id)] = id;
+            }
+        }
+        slots = resized;
+    }
+
+    private static int indexFor(long[] table, long id) {
+        int mask = table.length - 1;
+        int index = mix(id) & mask;
+        while (table[index] != 0 && table[index] != id) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Обход массива id, сделанного заранее; удаление через итератор передаётся исходному множеству.
+     */
+    public static final class SnapshotIterator implements Iterator<Long> {
+
+        private final Set<Long> owner;
+        private final long[] ids;
+        private int index;
+
+        public SnapshotIterator(Set<Long> owner, long[] ids) {
+            this.owner = owner;
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < ids.length;
+        }
+
+        @Override
+        public Long next() {
+            if (index == ids.length) {
+                throw new NoSuchElementException();
+            }
+            return ids[index++];
+        }
+
+        @Override
+        public void remove() {
+            if (index == 0) {
+                throw new IllegalStateException();
+            }
+            owner.remove(ids[index - 1]);
+        }
+    }
+}
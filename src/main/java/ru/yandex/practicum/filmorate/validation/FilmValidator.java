@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.GenreDictionary;
+
+import java.time.LocalDate;
+
+public final class FilmValidator {
+
+    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+    public static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    private FilmValidator() {
+    }
+
+    public static Violations validate(Film film) {
+        Violations violations = new Violations();
+        validateName(film.getName(), violations);
+        validateDescription(film.getDescription(), violations);
+        validateReleaseDate(film.getReleaseDate(), violations);
+        validateDuration(film.getDuration(), violations);
+        validateGenres(film.getGenreMask(), violations);
+        return violations;
+    }
+
+    public static Violations validatePresent(Film film) {
+        Violations violations = new Violations();
+        if (film.getName() != null) {
+            validateName(film.getName(), violations);
+        }
+        if (film.getDescription() != null) {
+            validateDescription(film.getDescription(), violations);
+        }
+        if (film.getReleaseDate() != null) {
+            validateReleaseDate(film.getReleaseDate(), violations);
+        }
+        if (film.getDuration() != null) {
+            validateDuration(film.getDuration(), violations);
+        }
+        validateGenres(film.getGenreMask(), violations);
+        return violations;
+    }
+
+    private static void validateName(String name, Violations violations) {
+        if (name == null || name.isBlank()) {
+            violations.add("Название не может быть пустым");
+        }
+    }
+
+    private static void validateDescription(String description, Violations violations) {
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            violations.add("Максимальная длина описания составляет 200 символов");
+        }
+    }
+
+    private static void validateReleaseDate(LocalDate releaseDate, Violations violations) {
+        if (releaseDate == null) {
+            violations.add("Дата релиза не может быть пустой");
+        } else if (releaseDate.isBefore(MIN_RELEASE_DATE)) {
+            violations.add("Дата релиза не может быть раньше 28 декабря 1895 года");
+        }
+    }
+
+    private static void validateGenres(long genreMask, Violations violations) {
+        if (GenreDictionary.hasUnknown(genreMask)) {
+            violations.add("Указан несуществующий жанр");
+        }
+    }
+
+    private static void validateDuration(Integer duration, Violations violations) {
+        if (duration == null) {
+            violations.add("Продолжительность фильма не может быть пустой");
+        } else if (duration <= 0) {
+            violations.add("Продолжительность фильма должна быть положительным числом");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+public final class UserValidator {
+
+    private UserValidator() {
+    }
+
+    public static Violations validate(User user) {
+        Violations violations = new Violations();
+        validateEmail(user.getEmail(), violations);
+        validateLogin(user.getLogin(), violations);
+        validateBirthday(user.getBirthday(), violations);
+        return violations;
+    }
+
+    public static Violations validatePresent(User user) {
+        Violations violations = new Violations();
+        if (user.getEmail() != null) {
+            validateEmail(user.getEmail(), violations);
+        }
+        if (user.getLogin() != null) {
+            validateLogin(user.getLogin(), violations);
+        }
+        if (user.getBirthday() != null) {
+            validateBirthday(user.getBirthday(), violations);
+        }
+        return violations;
+    }
+
+    private static void validateEmail(String email, Violations violations) {
+        if (email == null || email.isBlank()) {
+            violations.add("Электронная почта не может быть пустой");
+        } else if (email.indexOf('@') < 0) {
+            violations.add("Электронная почта должна содержать символ @");
+        }
+    }
+
+    private static void validateLogin(String login, Violations violations) {
+        if (login == null || login.isBlank()) {
+            violations.add("Логин не может быть пустым");
+        } else if (login.indexOf(' ') >= 0) {
+            violations.add("Логин не может содержать пробелы");
+        }
+    }
+
+    private static void validateBirthday(LocalDate birthday, Violations violations) {
+        if (birthday == null) {
+            violations.add("Дата рождения не может быть пустой");
+        } else if (birthday.isAfter(LocalDate.now())) {
+            violations.add("Дата рождения не может быть в будущем");
+        }
+    }
+}
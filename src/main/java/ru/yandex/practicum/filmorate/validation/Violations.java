@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Violations {
+
+    private String first;
+    private List<String> all;
+
+    public void add(String message) {
+        if (first == null) {
+            first = message;
+            return;
+        }
+        if (all == null) {
+            all = new ArrayList<>(4);
+            all.add(first);
+        }
+        all.add(message);
+    }
+
+    public boolean isEmpty() {
+        return first == null;
+    }
+
+    public List<String> messages() {
+        if (all != null) {
+            return List.copyOf(all);
+        }
+        return first == null ? List.of() : List.of(first);
+    }
+
+    public ValidationException toException() {
+        return new ValidationException(messages());
+    }
+
+    @Override
+    public String toString() {
+        return messages().toString();
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.yandex.practicum.filmorate.admission.AdaptiveConcurrencyLimiter;
+import ru.yandex.practicum.filmorate.admission.AdmissionControlFilter;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+
+    @Test
+    void limiterShouldBackOffOnSlowResponsesAndGrowOnFastOnes() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 20, 10);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(9, limiter.getLimit());
+
+        for (int i = 0; i < 9; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        for (int i = 0; i < 9; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        for (int i = 0; i < 9; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 9; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(10, limiter.getLimit());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void initialLimitShouldBeClampedToConfiguredBounds() {
+        assertEquals(4, new AdaptiveConcurrencyLimiter("test", 1, 4, 20, 10).getLimit());
+        assertEquals(20, new AdaptiveConcurrencyLimiter("test", 50, 4, 20, 10).getLimit());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter("test", 10, 30, 20, 10));
+    }
+
+    @Test
+    void writesShouldBeShedWhileReadsSaturateTheirLimit() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(1, 1, 1, 1_000, 10, 1, 10, 1_000, 3);
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch releaseRead = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            readStarted.countDown();
+            try {
+                releaseRead.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        Thread reader = new Thread(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/films"), new MockHttpServletResponse(),
+                        slowChain);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        reader.start();
+        assertTrue(readStarted.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/films"), write, new MockFilterChain());
+        assertEquals(429, write.getStatus());
+        assertEquals("3", write.getHeader(HttpHeaders.RETRY_AFTER));
+
+        MockHttpServletResponse otherPath = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/actuator/health"), otherPath, new MockFilterChain());
+        assertEquals(200, otherPath.getStatus());
+
+        releaseRead.countDown();
+        reader.join();
+
+        MockHttpServletResponse retried = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/films"), retried, new MockFilterChain());
+        assertEquals(200, retried.getStatus());
+    }
+
+    @Test
+    void batchLookupsAndSafeMethodsShouldBeAdmittedAsReads() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(10, 1, 10, 1_000, 1, 1, 1, 1_000, 1);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            writeStarted.countDown();
+            try {
+                releaseWrite.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        Thread writer = new Thread(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("PUT", "/films"), new MockHttpServletResponse(),
+                        slowChain);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writer.start();
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS));
+
+        for (MockHttpServletRequest read : List.of(new MockHttpServletRequest("POST", "/films/batch"),
+                new MockHttpServletRequest("POST", "/users/batch"), new MockHttpServletRequest("HEAD", "/films"),
+                new MockHttpServletRequest("OPTIONS", "/users"))) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(read, response, new MockFilterChain());
+            assertEquals(200, response.getStatus(), read.getMethod() + " " + read.getRequestURI());
+        }
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/films"), write, new MockFilterChain());
+        assertEquals(429, write.getStatus());
+
+        releaseWrite.countDown();
+        writer.join();
+    }
+}
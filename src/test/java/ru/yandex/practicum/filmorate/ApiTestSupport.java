@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate;
+
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Общая подготовка данных для MockMvc-тестов: очистка хранилищ и создание фильмов и пользователей через API.
+ * Счётчики id после очистки не сбрасываются, поэтому тесты обращаются к сущностям только по возвращённым id.
+ */
+abstract class ApiTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    protected void clearStorages() throws Exception {
+        mockMvc.perform(delete("/films")).andExpect(status().isOk());
+        mockMvc.perform(delete("/users")).andExpect(status().isOk());
+    }
+
+    protected long createFilm(String name) throws Exception {
+        return idOf(postFilm(name));
+    }
+
+    protected ResultActions postFilm(String name) throws Exception {
+        return mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"" + name + "\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}"))
+                .andExpect(status().isOk());
+    }
+
+    protected long createUser(String login) throws Exception {
+        return idOf(postUser(login));
+    }
+
+    protected ResultActions postUser(String login) throws Exception {
+        return mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + login + "@b.c\",\"login\":\"" + login + "\",\"birthday\":\"2000-01-01\"}"))
+                .andExpect(status().isOk());
+    }
+
+    protected static long idOf(ResultActions result) throws Exception {
+        return ((Number) JsonPath.read(result.andReturn().getResponse().getContentAsString(), "$.id")).longValue();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BatchLookupTest extends ApiTestSupport {
+
+    private long firstId;
+    private long thirdId;
+    private long filmId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clearStorages();
+        firstId = createUser("first");
+        createUser("second");
+        thirdId = createUser("third");
+        filmId = createFilm("Film");
+    }
+
+    @Test
+    void usersShouldBeReturnedInRequestOrderWithMissingIds() throws Exception {
+        long missingId = thirdId + 100;
+        mockMvc.perform(get("/users").param("ids", thirdId + "," + missingId + "," + firstId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].login").value("third"))
+                .andExpect(jsonPath("$.items[1].login").value("first"))
+                .andExpect(jsonPath("$.missing[0]").value(missingId));
+    }
+
+    @Test
+    void postBatchShouldResolveFilmsAndRespectFieldProjection() throws Exception {
+        long missingId = filmId + 100;
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + missingId + ", " + filmId + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Film"))
+                .andExpect(jsonPath("$.missing[0]").value(missingId));
+
+        mockMvc.perform(get("/films").param("ids", String.valueOf(filmId)).param("fields", "id"))
+                .andExpect(jsonPath("$.items[0].id").value(filmId))
+                .andExpect(jsonPath("$.items[0].name").doesNotExist())
+                .andExpect(jsonPath("$.missing").isEmpty());
+    }
+
+    @Test
+    void emptyBatchShouldBeRejected() throws Exception {
+        mockMvc.perform(post("/users/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Список идентификаторов не может быть пустым"));
+    }
+}
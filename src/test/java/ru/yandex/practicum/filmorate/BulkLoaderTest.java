@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.loader.BulkLoader;
+import ru.yandex.practicum.filmorate.loader.LoadReport;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.service.FriendsCache;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkLoaderTest {
+
+    @TempDir
+    private Path dir;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private InMemoryLikeStorage likeStorage;
+    private InMemoryFriendshipStorage friendshipStorage;
+    private BulkLoader bulkLoader;
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        likeStorage = new InMemoryLikeStorage();
+        friendshipStorage = new InMemoryFriendshipStorage();
+        filmStorage = new InMemoryFilmStorage(likeStorage);
+        userStorage = new InMemoryUserStorage(friendshipStorage);
+        bulkLoader = new BulkLoader(filmStorage, userStorage, likeStorage, friendshipStorage, new CascadeLock(),
+                new FriendsCache(100), new ObjectMapper().findAndRegisterModules(), events::add, 4);
+    }
+
+    @Test
+    void shouldLoadValidRowsPreservingIdsAndSkipInvalidOnes() throws IOException {
+        StringBuilder films = new StringBuilder();
+        for (int id = 1; id <= 500; id++) {
+            films.append("{\"id\":").append(id * 2).append(",\"name\":\"Film ").append(id)
+                    .append("\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n");
+        }
+        films.append("{\"id\":7,\"name\":\"\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n");
+        films.append("{\"id\":9,\"name\":\"Old\",\"releaseDate\":\"1800-01-01\",\"duration\":90}\n");
+        films.append("not json\n");
+        Files.writeString(dir.resolve(BulkLoader.FILMS_FILE), films);
+
+        Files.writeString(dir.resolve(BulkLoader.USERS_FILE), """
+                {"id":1,"email":"a@b.c","login":"first","birthday":"2000-01-01"}
+                {"id":2,"email":"b@b.c","login":"second","name":"Second","birthday":"2000-01-01"}\r
+                {"id":3,"email":"c@b.c","login":"third","birthday":"2000-01-01"}
+                {"id":4,"email":"no-at","login":"fourth","birthday":"2000-01-01"}
+                """);
+        Files.writeString(dir.resolve(BulkLoader.LIKES_FILE), """
+                filmId,userId
+                2,1
+                2,2
+                4,1
+                2,1
+                3,1
+                2,99
+                2,x
+                """);
+        Files.writeString(dir.resolve(BulkLoader.FRIENDSHIPS_FILE), """
+                userId,friendId
+                1,2
+                2,1
+                1,3
+                1,1
+                1,99
+                """);
+
+        Map<String, LoadReport> reports = bulkLoader.load(dir).stream()
+                .collect(Collectors.toMap(LoadReport::source, Function.identity()));
+
+        assertEquals(500, reports.get(BulkLoader.FILMS_FILE).accepted());
+        assertEquals(3, reports.get(BulkLoader.FILMS_FILE).rejected());
+        assertEquals(3, reports.get(BulkLoader.USERS_FILE).accepted());
+        assertEquals(1, reports.get(BulkLoader.USERS_FILE).rejected());
+        assertEquals(3, reports.get(BulkLoader.LIKES_FILE).accepted());
+        assertEquals(3, reports.get(BulkLoader.LIKES_FILE).rejected());
+        assertEquals(3, reports.get(BulkLoader.FRIENDSHIPS_FILE).accepted());
+        assertEquals(2, reports.get(BulkLoader.FRIENDSHIPS_FILE).rejected());
+
+        assertEquals("Film 250", filmStorage.findById(500L).orElseThrow().getName());
+        assertEquals("first", userStorage.findById(1L).orElseThrow().getName());
+        assertEquals(Set.of(1L, 2L), filmStorage.findById(2L).orElseThrow().getLikes());
+        assertEquals(Set.of(2L, 3L), userStorage.findById(1L).orElseThrow().getFriends());
+        assertEquals(Optional.of(FriendshipStatus.CONFIRMED), friendshipStorage.findStatus(1L, 2L));
+        assertEquals(Optional.of(FriendshipStatus.UNCONFIRMED), friendshipStorage.findStatus(1L, 3L));
+        assertEquals(Set.of(2L, 4L), likeStorage.removeUser(1L));
+        List<LikeCountsEvent> likeCounts = events.stream()
+                .filter(LikeCountsEvent.class::isInstance)
+                .map(LikeCountsEvent.class::cast)
+                .toList();
+        assertEquals(1, likeCounts.size());
+        Map<Long, Long> addedByFilm = new HashMap<>();
+        for (int i = 0; i < likeCounts.getFirst().filmIds().length; i++) {
+            addedByFilm.put(likeCounts.getFirst().filmIds()[i], likeCounts.getFirst().added()[i]);
+        }
+        assertEquals(Map.of(2L, 2L, 4L, 1L), addedByFilm);
+        assertTrue(events.stream().noneMatch(LikesEvent.class::isInstance));
+        assertTrue(events.stream().noneMatch(event -> event instanceof FilmEvent filmEvent
+                && filmEvent.type() == EventType.UPDATED));
+
+        Film created = new Film();
+        created.setName("New");
+        created.setReleaseDate(LocalDate.of(2000, 1, 1));
+        created.setDuration(90);
+        assertEquals(1001L, filmStorage.create(created).getId());
+    }
+
+    @Test
+    void shouldSkipMissingFiles() {
+        List<LoadReport> reports = bulkLoader.load(dir);
+
+        assertTrue(reports.isEmpty());
+        assertTrue(filmStorage.findAll().isEmpty());
+    }
+}
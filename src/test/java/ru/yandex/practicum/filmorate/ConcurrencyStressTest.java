@@ -0,0 +1,344 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.exception.PreconditionFailedException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendPathFinder;
+import ru.yandex.practicum.filmorate.service.FriendsCache;
+import ru.yandex.practicum.filmorate.service.TrendingIndex;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Стресс-тест сервисов и хранилищ под конкурентной нагрузкой. Каждый тест запускает операции из нескольких
+ * потоков одновременно, затем проверяет инварианты и линеаризуемость записанных историй.
+ * Число повторов задаётся свойством stress.rounds, начальное зерно — stress.seed.
+ */
+public class ConcurrencyStressTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = Integer.getInteger("stress.rounds", 3);
+    private static final long SEED = Long.getLong("stress.seed", 42);
+    private static final int FILMS = 4;
+    private static final int USERS = 8;
+    private static final int OPS_PER_KEY_PER_THREAD = 6;
+
+    private final ThreadLocal<int[]> likeEvents = ThreadLocal.withInitial(() -> new int[1]);
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private InMemoryLikeStorage likeStorage;
+    private InMemoryFriendshipStorage friendshipStorage;
+    private FilmService filmService;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        likeStorage = new InMemoryLikeStorage();
+        friendshipStorage = new InMemoryFriendshipStorage();
+        filmStorage = new InMemoryFilmStorage(likeStorage);
+        userStorage = new InMemoryUserStorage(friendshipStorage);
+        CascadeLock cascadeLock = new CascadeLock();
+        filmService = new FilmService(filmStorage, userStorage, likeStorage, cascadeLock, new TrendingIndex(),
+                Optional.empty(), event -> {
+                    if (event instanceof LikesEvent) {
+                        likeEvents.get()[0]++;
+                    }
+                });
+        userService = new UserService(userStorage, friendshipStorage, likeStorage, cascadeLock,
+                new FriendsCache(100), new FriendPathFinder(friendshipStorage, 1_000), event -> { });
+    }
+
+    @Test
+    void likesShouldBeLinearizableAndMatchLikeIndex() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            setUp();
+            long[] filmIds = createFilms(FILMS);
+            long[] userIds = createUsers(USERS);
+            Map<LikeKey, List<LinearizabilityChecker.Op>> histories = new ConcurrentHashMap<>();
+            long seed = SEED + round;
+
+            runConcurrently(thread -> {
+                List<LikeKey> schedule = new ArrayList<>();
+                for (long filmId : filmIds) {
+                    for (long userId : userIds) {
+                        for (int i = 0; i < OPS_PER_KEY_PER_THREAD; i++) {
+                            schedule.add(new LikeKey(filmId, userId));
+                        }
+                    }
+                }
+                SplittableRandom random = new SplittableRandom(seed * THREADS + thread);
+                Collections.shuffle(schedule, new Random(random.nextLong()));
+                int[] events = likeEvents.get();
+                for (LikeKey key : schedule) {
+                    boolean add = random.nextBoolean();
+                    int before = events[0];
+                    long start = System.nanoTime();
+                    if (add) {
+                        filmService.addLike(key.filmId(), key.userId());
+                    } else {
+                        filmService.removeLike(key.filmId(), key.userId());
+                    }
+                    long end = System.nanoTime();
+                    histories.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(new LinearizabilityChecker.Op(start, end, add, events[0] != before));
+                    if (random.nextInt(64) == 0) {
+                        filmService.getMostPopular(FILMS);
+                    }
+                }
+            });
+
+            Map<Long, Set<Long>> likedByUser = new HashMap<>();
+            for (long filmId : filmIds) {
+                Film film = filmStorage.findById(filmId).orElseThrow();
+                assertEquals(film.getLikes().size(), film.getLikeCount());
+                for (long userId : userIds) {
+                    LikeKey key = new LikeKey(filmId, userId);
+                    boolean present = film.getLikes().contains(userId);
+                    assertTrue(LinearizabilityChecker.isLinearizable(histories.get(key), false, present),
+                            "История лайков не линеаризуема: " + key + ", раунд " + round);
+                    if (present) {
+                        likedByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(filmId);
+                    }
+                }
+            }
+            for (long userId : userIds) {
+                assertEquals(likedByUser.getOrDefault(userId, Set.of()), likeStorage.removeUser(userId),
+                        "Индекс лайков расходится с фильмами для пользователя " + userId + ", раунд " + round);
+            }
+        }
+    }
+
+    @Test
+    void friendshipsShouldStayMirroredUnderConcurrentUpdates() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            setUp();
+            long[] userIds = createUsers(USERS);
+            long seed = SEED + round;
+
+            runConcurrently(thread -> {
+                SplittableRandom random = new SplittableRandom(seed * THREADS + thread);
+                for (int i = 0; i < 2_000; i++) {
+                    long userId = userIds[random.nextInt(USERS)];
+                    long friendId = userIds[random.nextInt(USERS)];
+                    int action = random.nextInt(16);
+                    if (userId == friendId || action == 0) {
+                        User profile = userStorage.findById(userId).orElseThrow().copy();
+                        profile.setName("user-" + thread + "-" + i);
+                        userService.update(profile);
+                    } else if (action == 1) {
+                        userService.getFriends(userId);
+                    } else if (action < 9) {
+                        userService.addFriend(userId, friendId);
+                    } else {
+                        userService.removeFriend(userId, friendId);
+                    }
+                }
+            });
+
+            for (long userId : userIds) {
+                Set<Long> friends = ids(friendshipStorage.findFriendIds(userId));
+                assertEquals(friends, Set.copyOf(userStorage.findById(userId).orElseThrow().getFriends()),
+                        "Друзья пользователя " + userId + " расходятся с хранилищем, раунд " + round);
+                assertEquals(friends, userService.getFriends(userId).stream().map(User::getId)
+                                .collect(Collectors.toSet()),
+                        "Кэш друзей пользователя " + userId + " устарел, раунд " + round);
+                for (long otherId : userIds) {
+                    boolean follows = friends.contains(otherId);
+                    boolean followed = ids(friendshipStorage.findFriendIds(otherId)).contains(userId);
+                    assertEquals(follows, ids(friendshipStorage.findFollowerIds(otherId)).contains(userId));
+                    Optional<FriendshipStatus> expected = follows
+                            ? Optional.of(followed ? FriendshipStatus.CONFIRMED : FriendshipStatus.UNCONFIRMED)
+                            : Optional.empty();
+                    assertEquals(expected, friendshipStorage.findStatus(userId, otherId),
+                            "Статус дружбы " + userId + " -> " + otherId + ", раунд " + round);
+                    assertEquals(follows && followed,
+                            ids(friendshipStorage.findConfirmedFriendIds(userId)).contains(otherId));
+                }
+            }
+        }
+    }
+
+    @Test
+    void concurrentCreatesShouldAssignUniqueSequentialIds() throws Exception {
+        int perThread = 500;
+        List<Long> filmIds = Collections.synchronizedList(new ArrayList<>());
+        List<Long> userIds = Collections.synchronizedList(new ArrayList<>());
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                filmIds.add(filmService.create(film()).getId());
+                userIds.add(userService.create(user("t" + thread + "u" + i)).getId());
+            }
+        });
+
+        int total = THREADS * perThread;
+        assertEquals(total, new HashSet<>(filmIds).size());
+        assertEquals(total, new HashSet<>(userIds).size());
+        assertEquals(total, Collections.max(filmIds));
+        assertEquals(total, Collections.max(userIds));
+        assertEquals(total, filmStorage.findAll().size());
+        assertEquals(total, userStorage.findAll().size());
+    }
+
+    @Test
+    void conditionalUpdatesShouldBeLinearizableAndKeepLikes() throws Exception {
+        long filmId = createFilms(1)[0];
+        long[] userIds = createUsers(THREADS * 16);
+        List<Update> updates = Collections.synchronizedList(new ArrayList<>());
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 200; i++) {
+                if (i % 13 == 0) {
+                    filmService.addLike(filmId, userIds[thread * 16 + i / 13]);
+                }
+                Film current = filmStorage.findById(filmId).orElseThrow();
+                Film change = current.copy();
+                change.setName("film-" + thread + "-" + i);
+                long start = System.nanoTime();
+                try {
+                    Film updated = filmService.update(change, current.getVersion());
+                    updates.add(new Update(start, System.nanoTime(), updated.getVersion(), change.getName()));
+                } catch (PreconditionFailedException e) {
+                    assertTrue(e.getCurrentVersion() > current.getVersion());
+                }
+            }
+        });
+
+        Film film = filmStorage.findById(filmId).orElseThrow();
+        List<Update> byVersion = updates.stream()
+                .sorted((a, b) -> Long.compare(a.version(), b.version()))
+                .toList();
+        assertEquals(film.getVersion() - 1, byVersion.size());
+        for (int i = 0; i < byVersion.size(); i++) {
+            assertEquals(i + 2, byVersion.get(i).version(), "Версии успешных обновлений должны идти подряд");
+        }
+        assertEquals(byVersion.getLast().name(), film.getName());
+        for (Update first : byVersion) {
+            for (Update second : byVersion) {
+                if (first.end() < second.start()) {
+                    assertTrue(first.version() < second.version(),
+                            "Порядок версий нарушает реальный порядок обновлений");
+                }
+            }
+        }
+        assertEquals(ids(userIds), Set.copyOf(film.getLikes()));
+    }
+
+    @Test
+    void checkerShouldRejectHistoriesWithoutValidOrder() {
+        List<LinearizabilityChecker.Op> repeatedAdd = List.of(
+                new LinearizabilityChecker.Op(0, 1, true, true),
+                new LinearizabilityChecker.Op(2, 3, true, true));
+        assertFalse(LinearizabilityChecker.isLinearizable(repeatedAdd, false, true));
+
+        List<LinearizabilityChecker.Op> overlapping = List.of(
+                new LinearizabilityChecker.Op(0, 10, true, true),
+                new LinearizabilityChecker.Op(5, 15, false, true));
+        assertTrue(LinearizabilityChecker.isLinearizable(overlapping, false, false));
+        assertFalse(LinearizabilityChecker.isLinearizable(overlapping, false, true));
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int thread = 0; thread < THREADS; thread++) {
+                int id = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(id);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long[] createFilms(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = filmService.create(film()).getId();
+        }
+        return ids;
+    }
+
+    private long[] createUsers(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = userService.create(user("user" + i)).getId();
+        }
+        return ids;
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@yandex.by");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static Set<Long> ids(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toSet());
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+
+    private record Update(long start, long end, long version, String name) {
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.org.zalando.logbook=INFO")
+public class ContentNegotiationTest {
+
+    private static final int USERS = 600;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MappingJackson2HttpMessageConverter jsonConverter;
+
+    private long filmId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        filmService.clearAllFilms();
+        userService.clearAllUsers();
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("d");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        filmId = filmService.create(film).getId();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            long id = userService.create(user).getId();
+            if (i == 0) {
+                userId = id;
+            } else {
+                userService.addFriend(userId, id);
+            }
+            filmService.addLike(filmId, id);
+        }
+    }
+
+    @Test
+    void filmsShouldBeEncodedAsCborOnRequest() throws Exception {
+        HttpResponse<byte[]> response = get("/films/popular", "application/cbor", "identity");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElseThrow());
+        JsonNode films = new CBORMapper().readTree(response.body());
+        assertEquals(filmId, films.get(0).get("id").asLong());
+        assertEquals(USERS, films.get(0).get("likes").size());
+        assertEquals(USERS, films.get(0).get("likeCount").asInt());
+        assertEquals("2000-01-01", films.get(0).get("releaseDate").asText());
+    }
+
+    @Test
+    void friendsShouldBeEncodedAsSmileOnRequest() throws Exception {
+        HttpResponse<byte[]> response = get("/users/" + userId + "/friends", "application/x-jackson-smile",
+                "identity");
+
+        assertEquals(200, response.statusCode());
+        JsonNode friends = new SmileMapper().readTree(response.body());
+        assertEquals(USERS - 1, friends.size());
+        assertEquals(userId + 1, friends.get(0).get("id").asLong());
+    }
+
+    @Test
+    void largeJsonShouldBeCompressedAndSmallShouldNot() throws Exception {
+        HttpResponse<byte[]> large = get("/films", "application/json", "gzip");
+        HttpResponse<byte[]> small = get("/films?fields=id,name", "application/json", "gzip");
+
+        assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElseThrow());
+        JsonNode films = jsonMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(large.body())));
+        assertEquals(USERS, films.get(0).get("likes").size());
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    void uncachedBodiesShouldBeBufferedOnlyUpToCompressionThreshold() throws Exception {
+        MockHttpOutputMessage small = new MockHttpOutputMessage();
+        MockHttpOutputMessage large = new MockHttpOutputMessage();
+        List<String> values = IntStream.range(0, 1_000).mapToObj(i -> "value" + i).toList();
+
+        jsonConverter.write(List.of("value"), MediaType.APPLICATION_JSON, small);
+        jsonConverter.write(values, MediaType.APPLICATION_JSON, large);
+
+        assertEquals(small.getBodyAsBytes().length, small.getHeaders().getContentLength());
+        assertEquals(-1, large.getHeaders().getContentLength());
+        assertEquals(values.size(), jsonMapper.readTree(large.getBodyAsBytes()).size());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String encoding) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .header("Accept-Encoding", encoding)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
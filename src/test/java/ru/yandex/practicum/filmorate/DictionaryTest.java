@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.GenreDictionary;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DictionaryTest extends ApiTestSupport {
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clearStorages();
+    }
+
+    @Test
+    void dictionariesShouldBeServedWithLongCacheHeaders() throws Exception {
+        mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age=86400")))
+                .andExpect(jsonPath("$", hasSize(6)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Комедия"));
+        mockMvc.perform(get("/mpa/3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("immutable")))
+                .andExpect(jsonPath("$.name").value("PG-13"));
+        mockMvc.perform(get("/mpa")).andExpect(jsonPath("$", hasSize(5)));
+        mockMvc.perform(get("/genres/99")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/mpa/0")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void filmGenresShouldBeHydratedFromDictionaryAndFilterable() throws Exception {
+        mockMvc.perform(filmRequest("[{\"id\":4},{\"id\":2},{\"id\":4,\"name\":\"ignored\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genres", hasSize(2)))
+                .andExpect(jsonPath("$.genres[0].id").value(2))
+                .andExpect(jsonPath("$.genres[0].name").value("Драма"))
+                .andExpect(jsonPath("$.genres[1].name").value("Триллер"));
+        mockMvc.perform(filmRequest("[{\"id\":1}]")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/popular").param("genreId", "4"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].genres[1].id").value(4));
+        mockMvc.perform(get("/films/popular").param("genreId", "5")).andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/films/popular")).andExpect(jsonPath("$", hasSize(2)));
+        mockMvc.perform(get("/films/popular").param("genreId", "42")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unknownGenreShouldFailValidation() throws Exception {
+        mockMvc.perform(filmRequest("[{\"id\":7}]")).andExpect(status().isBadRequest());
+        mockMvc.perform(filmRequest("[{\"name\":\"Комедия\"}]")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void filmMpaShouldBeReadAndWrittenAsDictionaryEntry() throws Exception {
+        mockMvc.perform(filmRequest("[]", "{\"id\":3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mpa.id").value(3))
+                .andExpect(jsonPath("$.mpa.name").value("PG-13"));
+        mockMvc.perform(filmRequest("[]", "\"NC_17\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mpa.id").value(5));
+        mockMvc.perform(filmRequest("[]", "{\"id\":6}")).andExpect(status().isBadRequest());
+        mockMvc.perform(filmRequest("[]", "\"X\"")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void genreMaskShouldShareDictionaryInstances() {
+        Film film = new Film();
+        film.setGenres(List.of(new Genre(6, null), new Genre(1, null)));
+
+        assertEquals(GenreDictionary.bit(1) | GenreDictionary.bit(6), film.getGenreMask());
+        assertSame(GenreDictionary.findById(1).orElseThrow(), film.getGenres().get(0));
+        assertSame(film.getGenres(), film.copy().getGenres());
+        assertTrue(GenreDictionary.all().containsAll(film.getGenres()));
+    }
+
+    private MockHttpServletRequestBuilder filmRequest(String genres) {
+        return filmRequest(genres, "null");
+    }
+
+    private MockHttpServletRequestBuilder filmRequest(String genres, String mpa) {
+        return post("/films").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Film\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\","
+                        + "\"duration\":90,\"genres\":" + genres + ",\"mpa\":" + mpa + "}");
+    }
+}
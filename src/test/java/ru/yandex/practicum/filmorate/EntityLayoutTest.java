@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityLayoutTest {
+
+    // id за пределами кеша Long: в прежней раскладке каждый из них хранился отдельным объектом
+    private static final long FIRST_ID = 1_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+
+    @Test
+    void filmIdentityShouldDependOnlyOnId() {
+        Film film = film(1L);
+        int hash = film.hashCode();
+        Film other = film(1L);
+        other.setName("Other");
+
+        film.getLikes().add(42L);
+
+        assertEquals(hash, film.hashCode());
+        assertEquals(film, other);
+        assertNotEquals(film, film(2L));
+    }
+
+    @Test
+    void filmJsonContractShouldBeUnchanged() throws Exception {
+        Film film = film(1L);
+        film.getLikes().add(7L);
+
+        assertEquals("{\"id\":1,\"name\":\"Film\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\","
+                        + "\"duration\":90,\"likes\":[7],\"genres\":[],\"mpa\":null,\"likeCount\":1}",
+                objectMapper.writeValueAsString(film));
+
+        Film parsed = objectMapper.readValue("{\"name\":\"Film\",\"releaseDate\":\"1999-12-31\"}", Film.class);
+        assertEquals(LocalDate.of(1999, 12, 31), parsed.getReleaseDate());
+        assertNull(parsed.getDuration());
+        assertSame(film.getName(), parsed.getName());
+    }
+
+    @Test
+    void userJsonContractShouldBeUnchanged() throws Exception {
+        User user = new User();
+        user.setId(3L);
+        user.setEmail("a@b.c");
+        user.setLogin("login");
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1990, 5, 17));
+
+        assertEquals("{\"id\":3,\"email\":\"a@b.c\",\"login\":\"login\",\"name\":\"Name\","
+                        + "\"birthday\":\"1990-05-17\",\"friends\":[]}",
+                objectMapper.writeValueAsString(user));
+        assertEquals(user.getBirthday(), objectMapper.readValue(objectMapper.writeValueAsString(user), User.class)
+                .getBirthday());
+    }
+
+    /**
+     * Замер по занятой куче после сборки мусора зависит от JVM и сборщика, поэтому запускается только
+     * вместе с бенчмарками: {@code mvn test -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void likeEdgesShouldTakeFewerBytesThanBoxedSets() {
+        int films = 200;
+        int users = 1_000;
+        long edges = (long) films * users;
+
+        long before = retainedBytes();
+        LikeStorage storage = new InMemoryLikeStorage();
+        for (long filmId = 1; filmId <= films; filmId++) {
+            for (long userId = 1; userId <= users; userId++) {
+                storage.addLike(FIRST_ID + filmId, FIRST_ID + userId);
+            }
+        }
+        double storageBytes = (double) (retainedBytes() - before) / edges;
+        Reference.reachabilityFence(storage);
+
+        before = retainedBytes();
+        List<Map<Long, Set<Long>>> boxed = boxedLikes(films, users);
+        double boxedBytes = (double) (retainedBytes() - before) / edges;
+        Reference.reachabilityFence(boxed);
+
+        assertTrue(storageBytes < 48, "Байт на лайк в хранилище: " + storageBytes);
+        assertTrue(storageBytes * 2 < boxedBytes, storageBytes + " против " + boxedBytes);
+    }
+
+    /**
+     * Прежняя раскладка: множество лайков в каждом фильме и обратный индекс фильмов пользователя.
+     */
+    private static List<Map<Long, Set<Long>>> boxedLikes(int films, int users) {
+        Map<Long, Set<Long>> usersByFilm = new HashMap<>();
+        Map<Long, Set<Long>> filmsByUser = new ConcurrentHashMap<>();
+        for (long filmId = 1; filmId <= films; filmId++) {
+            Set<Long> likes = ConcurrentHashMap.newKeySet();
+            usersByFilm.put(FIRST_ID + filmId, likes);
+            for (long userId = 1; userId <= users; userId++) {
+                likes.add(FIRST_ID + userId);
+                filmsByUser.computeIfAbsent(FIRST_ID + userId, id -> ConcurrentHashMap.newKeySet())
+                        .add(FIRST_ID + filmId);
+            }
+        }
+        return List.of(usersByFilm, filmsByUser);
+    }
+
+    private static long retainedBytes() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private Film film(Long id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName("Film");
+        film.setDescription("d");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        return film;
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class FieldProjectionTest extends ApiTestSupport {
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clearStorages();
+        createFilm("Film");
+        createUser("login");
+    }
+
+    @Test
+    void filmsWithoutFieldsShouldContainAllPropertiesAndLikeCount() throws Exception {
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("d"))
+                .andExpect(jsonPath("$[0].likes").isArray())
+                .andExpect(jsonPath("$[0].likeCount").value(0));
+    }
+
+    @Test
+    void filmsWithFieldsShouldContainOnlyRequestedProperties() throws Exception {
+        mockMvc.perform(get("/films/popular").param("fields", "id, name,likeCount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Film"))
+                .andExpect(jsonPath("$[0].likeCount").value(0))
+                .andExpect(jsonPath("$[0].likes").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    void usersWithFieldsShouldSkipFriendSets() throws Exception {
+        mockMvc.perform(get("/users").param("fields", "id,login"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].login").value("login"))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[0].friends").doesNotExist());
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmAnalytics;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.service.FilmAnalyticsService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FilmAnalyticsTest {
+
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(new InMemoryLikeStorage());
+    private final FilmAnalyticsService analyticsService = new FilmAnalyticsService(filmStorage, 7);
+
+    @Test
+    void columnScansShouldMatchObjectScans() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("d");
+            film.setReleaseDate(LocalDate.of(1900 + random.nextInt(125), 1 + random.nextInt(12), 1)
+                    .plusDays(random.nextInt(28)));
+            film.setDuration(1 + random.nextInt(200));
+            film.setMpa(random.nextInt(6) == 0 ? null : MpaRating.values()[random.nextInt(5)]);
+            film.setGenres(Set.of(genre(1 + random.nextInt(3)), genre(4 + random.nextInt(3))));
+            Film created = filmStorage.create(film);
+            analyticsService.onFilmEvent(new FilmEvent(EventType.CREATED, created.getId()));
+            for (long userId = 1; userId <= random.nextInt(5); userId++) {
+                created.getLikes().add(userId);
+                analyticsService.onLikesEvent(LikesEvent.of(created.getId(), userId, true));
+            }
+        }
+        for (long id = 1; id <= 500; id += 3) {
+            filmStorage.deleteById(id);
+            analyticsService.onFilmEvent(new FilmEvent(EventType.DELETED, id));
+        }
+
+        FilmAnalytics analytics = analyticsService.getAnalytics();
+
+        assertEquals(filmStorage.findAll().size(), analytics.films());
+        assertEquals(filmStorage.findAll().stream().collect(Collectors.groupingBy(
+                        film -> film.getReleaseDate().getYear(), TreeMap::new, Collectors.counting())),
+                analytics.filmsByReleaseYear());
+        Map<Long, Long> likesByGenre = new TreeMap<>();
+        filmStorage.findAll().forEach(film -> film.getGenres()
+                .forEach(genre -> likesByGenre.merge(genre.id(), (long) film.getLikeCount(), Long::sum)));
+        likesByGenre.values().removeIf(likes -> likes == 0);
+        assertEquals(likesByGenre, analytics.likesByGenre());
+        for (FilmAnalytics.MpaDuration byMpa : analytics.averageDurationByMpa()) {
+            double expected = filmStorage.findAll().stream()
+                    .filter(film -> film.getMpa() == byMpa.mpa())
+                    .mapToInt(Film::getDuration)
+                    .average()
+                    .orElseThrow();
+            assertEquals(expected, byMpa.averageDuration(), 1e-9);
+        }
+    }
+
+    @Test
+    void distantReleaseYearsShouldNotInflateYearBuckets() {
+        for (LocalDate releaseDate : new LocalDate[]{LocalDate.of(1900, 1, 1), LocalDate.of(5_000_000, 1, 1)}) {
+            Film film = new Film();
+            film.setName("Film");
+            film.setDescription("d");
+            film.setReleaseDate(releaseDate);
+            film.setDuration(90);
+            Film created = filmStorage.create(film);
+            analyticsService.onFilmEvent(new FilmEvent(EventType.CREATED, created.getId()));
+        }
+
+        FilmAnalytics analytics = analyticsService.getAnalytics();
+
+        assertEquals(Map.of(1900, 1L, 5_000_000, 1L), analytics.filmsByReleaseYear());
+    }
+
+    private static Genre genre(long id) {
+        return new Genre(id, null);
+    }
+}
@@ -5,13 +5,32 @@ import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.filmorate.controller.FilmController;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.event.LikeCountsEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.TrendingIndex;
+import ru.yandex.practicum.filmorate.service.LikeEventPipeline;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +40,7 @@ public class FilmControllerTest {
     private FilmStorage filmStorage;
     private FilmService filmService;
     private UserStorage userStorage;
+    private LikeStorage likeStorage;
     private static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895,12,28);
 
     private Film createValidFilm() {
@@ -34,8 +54,11 @@ public class FilmControllerTest {
 
     @BeforeEach
     void setUp() {
-        filmStorage = new InMemoryFilmStorage();
-        filmService = new FilmService(filmStorage, userStorage);
+        likeStorage = new InMemoryLikeStorage();
+        filmStorage = new InMemoryFilmStorage(likeStorage);
+        userStorage = new InMemoryUserStorage(new InMemoryFriendshipStorage());
+        filmService = new FilmService(filmStorage, userStorage, likeStorage, new CascadeLock(),
+                new TrendingIndex(), Optional.empty(), event -> { });
         filmController = new FilmController(filmService);
     }
 
@@ -149,6 +172,32 @@ public class FilmControllerTest {
         assertEquals("Продолжительность фильма не может быть пустой", exception.getMessage());
     }
 
+    @Test
+    void createFilmWithSeveralErrorsShouldReportAllOfThem() {
+        Film film = createValidFilm();
+        film.setName(" ");
+        film.setReleaseDate(MIN_RELEASE_DATE.minusDays(1));
+        film.setDuration(0);
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> filmController.create(film));
+        assertEquals(List.of("Название не может быть пустым",
+                "Дата релиза не может быть раньше 28 декабря 1895 года",
+                "Продолжительность фильма должна быть положительным числом"), exception.getViolations());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    void updateFilmWithInvalidFieldShouldNotApplyOtherFields() {
+        Film existingFilm = filmController.create(createValidFilm());
+        Film updateFilm = new Film();
+        updateFilm.setId(existingFilm.getId());
+        updateFilm.setName("Updated Film Name");
+        updateFilm.setDuration(-1);
+
+        assertThrows(ValidationException.class, () -> filmController.update(updateFilm, null));
+        assertEquals("Film Name", filmStorage.findById(existingFilm.getId()).orElseThrow().getName());
+    }
+
     @Test
     void updateFilmWithValidDataShouldUpdateFilm() {
         Film existingFilm = filmController.create(createValidFilm());
@@ -156,7 +205,7 @@ public class FilmControllerTest {
         updateFilm.setId(existingFilm.getId());
         updateFilm.setName("Updated Film Name");
         updateFilm.setDuration(150);
-        Film updatedFilm = filmController.update(updateFilm);
+        Film updatedFilm = filmController.update(updateFilm, null);
 
         assertEquals("Updated Film Name", updatedFilm.getName());
         assertEquals(150, updatedFilm.getDuration());
@@ -168,7 +217,7 @@ public class FilmControllerTest {
         Film film = createValidFilm();
         film.setId(999L);
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> filmController.update(film));
+                () -> filmController.update(film, null));
         assertEquals("Фильм с id = 999 не найден", exception.getMessage());
     }
 
@@ -177,7 +226,7 @@ public class FilmControllerTest {
         Film film = createValidFilm();
         film.setId(null);
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> filmController.update(film));
+                () -> filmController.update(film, null));
         assertEquals("Фильм с id = null не найден", exception.getMessage());
     }
 
@@ -187,7 +236,7 @@ public class FilmControllerTest {
         Film updateFilm = new Film();
         updateFilm.setId(existingFilm.getId());
         updateFilm.setName("Only Name Updated");
-        Film updatedFilm = filmController.update(updateFilm);
+        Film updatedFilm = filmController.update(updateFilm, null);
 
         assertEquals("Only Name Updated", updatedFilm.getName());
         assertEquals(existingFilm.getDescription(), updatedFilm.getDescription());
@@ -199,7 +248,162 @@ public class FilmControllerTest {
     void findAllShouldReturnAllFilms() {
         filmController.create(createValidFilm());
         filmController.create(createValidFilm());
-        var films = filmController.findAll();
+        var films = filmController.findAll(null);
         assertEquals(2, films.size());
     }
+
+    @Test
+    void addLikeFromUnknownUserShouldThrowNotFoundException() {
+        Film film = filmController.create(createValidFilm());
+        assertThrows(NotFoundException.class, () -> filmController.addLike(film.getId(), 999L));
+        assertTrue(film.getLikes().isEmpty());
+    }
+
+    @Test
+    void likesThroughAsyncPipelineShouldBeCoalescedAndVisibleToNextRead() {
+        UserStorage users = new InMemoryUserStorage(new InMemoryFriendshipStorage());
+        User user = new User();
+        user.setEmail("user@yandex.by");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        Long userId = users.create(user).getId();
+
+        LikeEventPipeline pipeline = new LikeEventPipeline(16, 4);
+        FilmService asyncService = new FilmService(filmStorage, users, likeStorage,
+                new CascadeLock(), new TrendingIndex(), Optional.of(pipeline), event -> { });
+        asyncService.startLikePipeline();
+        Film film = asyncService.create(createValidFilm());
+        Film other = asyncService.create(createValidFilm());
+
+        for (int i = 0; i < 50; i++) {
+            asyncService.addLike(film.getId(), userId);
+            asyncService.removeLike(film.getId(), userId);
+        }
+        asyncService.addLike(other.getId(), userId);
+
+        var popular = asyncService.getMostPopular(1, null, userId);
+        assertEquals(other.getId(), popular.getFirst().getId());
+        assertTrue(film.getLikes().isEmpty());
+        assertEquals(0, pipeline.getDepth());
+        pipeline.stop();
+    }
+
+    @Test
+    void readsShouldWaitOnlyForLikesOfTheirOwnUser() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<LikeEventPipeline.LikeOp> applied = new CopyOnWriteArrayList<>();
+        LikeEventPipeline pipeline = new LikeEventPipeline(16, 4);
+        pipeline.start(ops -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            applied.addAll(ops);
+        });
+        pipeline.submit(1L, 7L, true);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> pipeline.awaitApplied(8L));
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> pipeline.awaitApplied((Long) null));
+        assertTrue(applied.isEmpty());
+
+        release.countDown();
+        pipeline.awaitApplied(7L);
+        assertEquals(List.of(new LikeEventPipeline.LikeOp(1L, 7L, true)), applied);
+        pipeline.stop();
+    }
+
+    @Test
+    void bulkLoadedLikeCountsShouldRankTrendingFilms() {
+        TrendingIndex index = new TrendingIndex();
+        index.onLikesEvent(LikesEvent.of(5L, 1L, true));
+        index.onLikeCountsEvent(new LikeCountsEvent(new long[]{5L, 6L}, new long[]{1L, 3L}));
+
+        assertEquals(List.of(6L, 5L), index.findTopFilmIds(TrendingWindow.HOUR, 10));
+    }
+
+    @Test
+    void unlikeInLaterBucketShouldNotResurrectLikeAfterRollover() {
+        Clock[] clock = {Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC)};
+        TrendingIndex index = new TrendingIndex(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return clock[0].instant();
+            }
+        });
+        index.onLikesEvent(LikesEvent.of(1L, 1L, true));
+        index.onLikesEvent(LikesEvent.of(2L, 1L, true));
+        clock[0] = Clock.offset(clock[0], Duration.ofMinutes(5));
+        index.tick();
+        index.onLikesEvent(LikesEvent.of(1L, 1L, false));
+
+        for (int minute = 0; minute < 70; minute++) {
+            assertFalse(index.findTopFilmIds(TrendingWindow.HOUR, 10).contains(1L),
+                    "Снятый лайк вернулся на минуте " + minute);
+            clock[0] = Clock.offset(clock[0], Duration.ofMinutes(1));
+            index.tick();
+        }
+        assertEquals(List.of(2L), index.findTopFilmIds(TrendingWindow.DAY, 10));
+        assertTrue(index.findTopFilmIds(TrendingWindow.HOUR, 10).isEmpty());
+    }
+
+    @Test
+    void trendingShouldRankRecentLikesAndRollOffExpiredBuckets() {
+        UserStorage users = new InMemoryUserStorage(new InMemoryFriendshipStorage());
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("user@yandex.by");
+            user.setLogin("login" + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            users.create(user);
+        }
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        Clock[] clock = {Clock.fixed(start, ZoneOffset.UTC)};
+        TrendingIndex index = new TrendingIndex(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return clock[0].instant();
+            }
+        });
+        FilmService trendingService = new FilmService(filmStorage, users, likeStorage,
+                new CascadeLock(), index, Optional.empty(), event -> {
+                    if (event instanceof LikesEvent likes) {
+                        index.onLikesEvent(likes);
+                    }
+                });
+        Film old = trendingService.create(createValidFilm());
+        Film fresh = trendingService.create(createValidFilm());
+
+        trendingService.addLike(old.getId(), 1L);
+        trendingService.addLike(old.getId(), 2L);
+        clock[0] = Clock.offset(clock[0], Duration.ofMinutes(90));
+        index.tick();
+        trendingService.addLike(fresh.getId(), 3L);
+
+        assertEquals(List.of(fresh.getId()), trendingService.getTrending(TrendingWindow.HOUR, 10)
+                .stream().map(Film::getId).toList());
+        assertEquals(List.of(old.getId(), fresh.getId()), trendingService.getTrending(TrendingWindow.DAY, 10)
+                .stream().map(Film::getId).toList());
+        assertThrows(ValidationException.class, () -> filmController.getTrending("2h", 10, null));
+    }
 }
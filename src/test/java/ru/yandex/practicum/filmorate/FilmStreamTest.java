@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.service.LikeStreamBroadcaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "filmorate.stream.tick-ms=3600000")
+@AutoConfigureMockMvc
+public class FilmStreamTest extends ApiTestSupport {
+
+    @Autowired
+    private LikeStreamBroadcaster broadcaster;
+
+    private long firstId;
+    private long secondId;
+    private long aliceId;
+    private long bobId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clearStorages();
+        broadcaster.tick();
+        firstId = createFilm("First");
+        secondId = createFilm("Second");
+        aliceId = createUser("a");
+        bobId = createUser("b");
+    }
+
+    @Test
+    void likesShouldBeCoalescedIntoOneDeltaPerTick() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/films/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = stream.getResponse();
+        awaitContent(response, "event:snapshot");
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", firstId, aliceId));
+        mockMvc.perform(put("/films/{id}/like/{userId}", firstId, bobId));
+        broadcaster.tick();
+        awaitContent(response, "event:likes");
+        assertTrue(response.getContentAsString()
+                .contains("{\"filmId\":" + firstId + ",\"likeCount\":2,\"rank\":1,\"previousRank\":null}"));
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", secondId, aliceId));
+        mockMvc.perform(put("/films/{id}/like/{userId}", secondId, bobId));
+        mockMvc.perform(delete("/films/{id}/like/{userId}", firstId, bobId));
+        broadcaster.tick();
+        awaitContent(response, "\"filmId\":" + secondId + ",\"likeCount\":2,\"rank\":1");
+        String content = response.getContentAsString();
+        assertTrue(content.contains("{\"filmId\":" + firstId + ",\"likeCount\":1,\"rank\":2,\"previousRank\":1}"));
+        assertEquals(2, content.split("event:likes").length - 1);
+    }
+
+    @Test
+    void idleTickShouldNotPublishAnything() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/films/stream")).andReturn();
+        awaitContent(stream.getResponse(), "event:snapshot");
+
+        broadcaster.tick();
+        Thread.sleep(100);
+        assertFalse(stream.getResponse().getContentAsString().contains("event:likes"));
+    }
+
+    private void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Не дождались '" + expected + "' в " + response.getContentAsString());
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный прогон полного HTTP-стека. Запуск: {@code mvn test -Dtest=HttpLoadTest -Dloadtest=true}.
+ * Параметры: loadtest.users, loadtest.films, loadtest.likes, loadtest.friendships,
+ * loadtest.rate (запросов в секунду), loadtest.duration и loadtest.warmup (секунд), loadtest.seed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.org.zalando.logbook=INFO")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class HttpLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 2_000);
+    private static final int FILMS = Integer.getInteger("loadtest.films", 1_000);
+    private static final int LIKES = Integer.getInteger("loadtest.likes", 50_000);
+    private static final int FRIENDSHIPS = Integer.getInteger("loadtest.friendships", 10_000);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 1_000);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration", 10);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup", 3);
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void weightedEndpointMixUnderOpenModelLoad() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        seed(random);
+
+        Map<String, Function<SplittableRandom, HttpRequest>> endpoints = new LinkedHashMap<>();
+        endpoints.put("GET /films/popular", r -> get("/films/popular?count=10"));
+        endpoints.put("GET /films", r -> get("/films?fields=id,name,likeCount"));
+        endpoints.put("GET /users/{id}/friends", r -> get("/users/" + userId(r) + "/friends"));
+        endpoints.put("GET /users/{id}/friends/common/{otherId}",
+                r -> get("/users/" + userId(r) + "/friends/common/" + userId(r)));
+        endpoints.put("PUT /films/{id}/like/{userId}",
+                r -> put("/films/" + filmId(r) + "/like/" + userId(r)));
+        endpoints.put("PUT /users/{id}/friends/{friendId}", r -> friendRequest(r));
+        int[] weights = {40, 5, 20, 10, 20, 5};
+
+        drive(endpoints, weights, WARMUP_SECONDS, random);
+        Map<String, LatencyHistogram> histograms = drive(endpoints, weights, DURATION_SECONDS, random);
+        assertTrue(histograms.values().stream().anyMatch(h -> h.snapshot().count() > 0),
+                "Ни один запрос не завершился успешно");
+    }
+
+    private Map<String, LatencyHistogram> drive(Map<String, Function<SplittableRandom, HttpRequest>> endpoints,
+                                                int[] weights, int seconds, SplittableRandom random) {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        endpoints.keySet().forEach(name -> histograms.put(name, new LatencyHistogram()));
+        List<String> names = new ArrayList<>(endpoints.keySet());
+        int totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long total = (long) RATE * seconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String name = pick(names, weights, totalWeight, random);
+            LatencyHistogram histogram = histograms.get(name);
+            HttpRequest request = endpoints.get(name).apply(random);
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() >= 500) {
+                            histogram.recordError();
+                        } else {
+                            histogram.record(System.nanoTime() - intended);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+
+        report(histograms, elapsed, allocated);
+        return histograms;
+    }
+
+    private void seed(SplittableRandom random) {
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@load.test");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1970, 1, 1).plusDays(random.nextInt(15_000)));
+            userService.create(user);
+        }
+        for (int i = 0; i < FILMS; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Synthetic film " + i);
+            film.setReleaseDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25_000)));
+            film.setDuration(60 + random.nextInt(120));
+            filmService.create(film);
+        }
+        for (int i = 0; i < LIKES; i++) {
+            filmService.addLike(filmId(random), userId(random));
+        }
+        for (int i = 0; i < FRIENDSHIPS; i++) {
+            long userId = userId(random);
+            long friendId = userId(random);
+            if (userId != friendId) {
+                userService.addFriend(userId, friendId);
+            }
+        }
+    }
+
+    private void report(Map<String, LatencyHistogram> histograms, long elapsedNanos, long allocatedBytes) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long completed = 0;
+        long errors = 0;
+        StringBuilder table = new StringBuilder(String.format("%n%-45s %8s %7s %9s %9s %9s%n",
+                "endpoint", "ok", "errors", "p50 ms", "p99 ms", "p999 ms"));
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+            completed += snapshot.count();
+            errors += snapshot.errors();
+            table.append(String.format("%-45s %8d %7d %9.2f %9.2f %9.2f%n", entry.getKey(), snapshot.count(),
+                    snapshot.errors(), snapshot.percentileMillis(50), snapshot.percentileMillis(99),
+                    snapshot.percentileMillis(99.9)));
+        }
+        table.append(String.format("target rate %d req/s, throughput %.1f req/s, errors %d, allocation %.1f MB/s%n",
+                RATE, completed / seconds, errors, allocatedBytes / seconds / (1024 * 1024)));
+        System.out.println(table);
+    }
+
+    private String pick(List<String> names, int[] weights, int totalWeight, SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return names.get(i);
+            }
+        }
+        return names.getLast();
+    }
+
+    private HttpRequest friendRequest(SplittableRandom random) {
+        long userId = userId(random);
+        long friendId = userId % USERS + 1;
+        return put("/users/" + userId + "/friends/" + friendId);
+    }
+
+    private long userId(SplittableRandom random) {
+        return 1 + random.nextInt(USERS);
+    }
+
+    private long filmId(SplittableRandom random) {
+        return 1 + random.nextInt(FILMS);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest put(String path) {
+        return HttpRequest.newBuilder(uri(path)).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
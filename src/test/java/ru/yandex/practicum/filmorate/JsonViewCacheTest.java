@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import ru.yandex.practicum.filmorate.cache.JsonViewCache;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class JsonViewCacheTest extends ApiTestSupport {
+
+    @Autowired
+    private JsonViewCache jsonViewCache;
+
+    private long filmId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clearStorages();
+        filmId = createFilm("Film");
+        userId = createUser("login");
+    }
+
+    @Test
+    void cachedFilmJsonShouldBeInvalidatedByLikesAndUpdates() throws Exception {
+        mockMvc.perform(get("/films"))
+                .andExpect(jsonPath("$[0].likeCount").value(0));
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular"))
+                .andExpect(jsonPath("$[0].likes[0]").value(userId))
+                .andExpect(jsonPath("$[0].likeCount").value(1));
+
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":" + filmId + ",\"name\":\"Renamed\"}"));
+        mockMvc.perform(get("/films"))
+                .andExpect(jsonPath("$[0].name").value("Renamed"));
+    }
+
+    @Test
+    void bytesOfOlderVersionShouldNotReplaceNewerOnes() {
+        Film older = new Film();
+        older.setId(filmId);
+        older.setName("Older");
+        older.setVersion(10);
+        Film newer = older.copy();
+        newer.setName("Newer");
+        newer.setVersion(11);
+
+        assertTrue(json(older).contains("Older"));
+        assertTrue(json(newer).contains("Newer"));
+        assertTrue(json(older).contains("Older"));
+        assertTrue(json(newer).contains("Newer"));
+    }
+
+    @Test
+    void emptyListShouldStillBeSerialized() throws Exception {
+        mockMvc.perform(get("/users/{id}/friends", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    private String json(Film film) {
+        return new String(jsonViewCache.bytes(film), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверка линеаризуемости истории одного элемента множества (например, лайка) по алгоритму Wing–Gong:
+ * ищется порядок операций, согласованный с реальным временем, в котором каждая операция вернула бы записанный
+ * результат, а итоговое состояние совпадает с наблюдаемым. История ограничена 63 операциями.
+ */
+class LinearizabilityChecker {
+
+    private final List<Op> ops;
+    private final boolean finalState;
+    private final Set<Long> visited = new HashSet<>();
+
+    private LinearizabilityChecker(List<Op> ops, boolean finalState) {
+        if (ops.size() >= Long.SIZE) {
+            throw new IllegalArgumentException("История длиннее " + (Long.SIZE - 1) + " операций");
+        }
+        this.ops = ops;
+        this.finalState = finalState;
+    }
+
+    static boolean isLinearizable(List<Op> ops, boolean initialState, boolean finalState) {
+        return new LinearizabilityChecker(ops, finalState).search(0L, initialState);
+    }
+
+    private boolean search(long done, boolean present) {
+        if (Long.bitCount(done) == ops.size()) {
+            return present == finalState;
+        }
+        if (!visited.add(done << 1 | (present ? 1 : 0))) {
+            return false;
+        }
+        long minEnd = Long.MAX_VALUE;
+        for (int i = 0; i < ops.size(); i++) {
+            if ((done & 1L << i) == 0) {
+                minEnd = Math.min(minEnd, ops.get(i).end());
+            }
+        }
+        for (int i = 0; i < ops.size(); i++) {
+            Op op = ops.get(i);
+            if ((done & 1L << i) != 0 || op.start() > minEnd) {
+                continue;
+            }
+            boolean changes = op.add() != present;
+            if (changes == op.changed() && search(done | 1L << i, op.add())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Операция add/remove с моментами вызова и возврата и признаком того, изменила ли она множество.
+     */
+    record Op(long start, long end, boolean add, boolean changed) {
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.LruCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LruCacheTest {
+
+    private static long[] tags(List<Long> key) {
+        return key.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Test
+    void taggedInvalidationShouldRemoveOnlyEntriesWithThatTag() {
+        LruCache<List<Long>, String> cache = new LruCache<>("test", 10, LruCacheTest::tags);
+        put(cache, List.of(1L, 2L), "a");
+        put(cache, List.of(3L, 4L), "b");
+        put(cache, List.of(1L, 5L), "c");
+
+        cache.invalidateTagged(1L);
+
+        assertNull(cache.get(List.of(1L, 2L)));
+        assertNull(cache.get(List.of(1L, 5L)));
+        assertEquals("b", cache.get(List.of(3L, 4L)));
+        assertEquals(1, cache.size());
+
+        put(cache, List.of(2L, 6L), "d");
+        cache.invalidateTagged(2L, 4L);
+        assertEquals(0, cache.size());
+    }
+
+    private static void put(LruCache<List<Long>, String> cache, List<Long> key, String value) {
+        cache.putIfFresh(key, value, cache.stamp());
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OptimisticUpdateTest extends ApiTestSupport {
+
+    private long filmId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        clearStorages();
+        filmId = idOf(postFilm("Film").andExpect(header().string(HttpHeaders.ETAG, "\"1\"")));
+        userId = idOf(postUser("login").andExpect(header().string(HttpHeaders.ETAG, "\"1\"")));
+    }
+
+    @Test
+    void filmUpdateWithStaleIfMatchShouldFail() throws Exception {
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, "\"1\"").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + filmId + ",\"name\":\"Second\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.name").value("Second"));
+
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, "\"1\"").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + filmId + ",\"name\":\"Third\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void userUpdateShouldHonourIfMatch() throws Exception {
+        mockMvc.perform(put("/users").header(HttpHeaders.IF_MATCH, "\"7\"").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + userId + ",\"name\":\"Name\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put("/users").header(HttpHeaders.IF_MATCH, "W/\"1\"").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + userId + ",\"name\":\"Name\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        mockMvc.perform(put("/users").header(HttpHeaders.IF_MATCH, "abc").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + userId + ",\"name\":\"Name\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentUpdatesShouldPublishNewVersionsWithoutLosingAny() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(new InMemoryLikeStorage());
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("d");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        Film created = storage.create(film);
+        created.getLikes().add(5L);
+
+        int threads = 8;
+        int updatesPerThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                int duration = t + 1;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        Film change = new Film();
+                        change.setId(created.getId());
+                        change.setDuration(duration);
+                        Film updated = storage.update(change);
+                        assertNotSame(created, updated);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Film current = storage.findById(created.getId()).orElseThrow();
+        assertEquals(1 + threads * updatesPerThread, current.getVersion());
+        assertEquals(90, created.getDuration());
+        assertTrue(current.getLikes().contains(5L));
+    }
+}
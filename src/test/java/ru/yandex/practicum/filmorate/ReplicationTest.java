@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.replication.ReplicationFollower;
+import ru.yandex.practicum.filmorate.replication.ReplicationServer;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class ReplicationTest {
+
+    private ConfigurableApplicationContext leader;
+    private ConfigurableApplicationContext follower;
+
+    @AfterEach
+    void tearDown() {
+        if (follower != null) {
+            follower.close();
+        }
+        if (leader != null) {
+            leader.close();
+        }
+    }
+
+    @Test
+    void followerShouldCatchUpFromSnapshotAndThenStreamChanges() throws Exception {
+        leader = start("filmorate.replication.role=leader", "filmorate.replication.port=0");
+        FilmService leaderFilms = leader.getBean(FilmService.class);
+        UserService leaderUsers = leader.getBean(UserService.class);
+        for (int i = 1; i <= 5; i++) {
+            leaderUsers.create(user("user" + i));
+            leaderFilms.create(film("Film " + i));
+        }
+        leaderFilms.addLike(1L, 1L);
+        leaderFilms.addLike(1L, 2L);
+        leaderFilms.addLike(3L, 4L);
+        leaderUsers.addFriend(1L, 2L);
+        leaderUsers.addFriend(2L, 1L);
+        Film retitled = film("Retitled");
+        retitled.setId(2L);
+        leaderFilms.update(retitled);
+
+        int port = leader.getBean(ReplicationServer.class).getLocalPort();
+        follower = start("filmorate.replication.role=follower", "filmorate.replication.leader-port=" + port,
+                "filmorate.replication.reconnect-ms=100");
+        awaitConverged();
+
+        Film renamed = film("Renamed");
+        renamed.setId(2L);
+        leaderFilms.update(renamed);
+        leaderFilms.removeLike(1L, 2L);
+        leaderFilms.addLike(2L, 5L);
+        leaderUsers.addFriend(3L, 1L);
+        leaderUsers.deleteUser(4L);
+        leaderFilms.deleteFilm(5L);
+        awaitConverged();
+
+        ReplicationFollower replica = follower.getBean(ReplicationFollower.class);
+        assertEquals(0, replica.getLag());
+        assertEquals("Renamed", follower.getBean(FilmStorage.class).findById(2L).orElseThrow().getName());
+        assertEquals(3, follower.getBean(FilmStorage.class).findById(2L).orElseThrow().getVersion());
+        assertEquals(1, follower.getBean(UserService.class).getConfirmedFriends(1L).size());
+    }
+
+    private void awaitConverged() throws InterruptedException {
+        await(() -> films(leader).equals(films(follower)) && users(leader).equals(users(follower))
+                && follower.getBean(ReplicationFollower.class).getLag() == 0);
+        assertEquals(films(leader), films(follower));
+        assertEquals(users(leader), users(follower));
+    }
+
+    private static Map<Long, String> films(ConfigurableApplicationContext context) {
+        return context.getBean(FilmStorage.class).findAll().stream()
+                .collect(Collectors.toMap(Film::getId, film -> film.getName() + " v" + film.getVersion() + film.getLikes()));
+    }
+
+    private static Map<Long, String> users(ConfigurableApplicationContext context) {
+        return context.getBean(UserStorage.class).findAll().stream()
+                .collect(Collectors.toMap(User::getId, user -> user.getLogin() + " v" + user.getVersion() + user.getFriends()));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Реплика не догнала ведущий узел");
+            }
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("d");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@b.c");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
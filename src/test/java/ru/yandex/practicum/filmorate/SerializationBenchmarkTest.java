@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение форматов ответа {@code GET /films}: время кодирования и размер тела.
+ * Запуск: {@code mvn test -Dtest=SerializationBenchmarkTest -Dbenchmark=true}.
+ * Параметры: benchmark.films, benchmark.likes (лайков на фильм), benchmark.iterations, benchmark.seed.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SerializationBenchmarkTest {
+
+    private static final int FILMS = Integer.getInteger("benchmark.films", 1_000);
+    private static final int LIKES = Integer.getInteger("benchmark.likes", 500);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final long SEED = Long.getLong("benchmark.seed", 42);
+
+    @Test
+    void compareFormats() {
+        List<Film> films = films();
+        Map<String, Encoder> encoders = new LinkedHashMap<>();
+        encoders.put("json (boxed ids)", configure(new ObjectMapper()).addMixIn(Film.class, BoxedLikes.class)
+                ::writeValueAsBytes);
+        ObjectMapper json = configure(new ObjectMapper());
+        encoders.put("json", json::writeValueAsBytes);
+        encoders.put("json + gzip", value -> gzip(json.writeValueAsBytes(value)));
+        encoders.put("cbor", configure(new CBORMapper())::writeValueAsBytes);
+        encoders.put("smile", configure(new SmileMapper())::writeValueAsBytes);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-20s %12s %12s %10s%n",
+                "format", "bytes", "encode ms", "MB/s"));
+        for (Map.Entry<String, Encoder> entry : encoders.entrySet()) {
+            Encoder encoder = entry.getValue();
+            int size = 0;
+            for (int i = 0; i < ITERATIONS / 4 + 1; i++) {
+                size = encoder.encode(films).length;
+            }
+            long started = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                size = encoder.encode(films).length;
+            }
+            double millis = (System.nanoTime() - started) / 1_000_000.0 / ITERATIONS;
+            assertTrue(size > 0, "Пустой результат кодирования " + entry.getKey());
+            table.append(String.format("%-20s %12d %12.3f %10.1f%n", entry.getKey(), size, millis,
+                    size / millis / 1000.0));
+        }
+        table.append(String.format("%d films x %d likes, %d iterations%n", FILMS, LIKES, ITERATIONS));
+        System.out.println(table);
+    }
+
+    private List<Film> films() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Film> films = new ArrayList<>(FILMS);
+        for (long id = 1; id <= FILMS; id++) {
+            Film film = new Film();
+            film.setId(id);
+            film.setName("Film " + id);
+            film.setDescription("Description of film " + id);
+            film.setReleaseDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(25_000)));
+            film.setDuration(60 + random.nextInt(120));
+            for (int i = 0; i < LIKES; i++) {
+                film.getLikes().add(1 + random.nextLong(1_000_000));
+            }
+            films.add(film);
+        }
+        return films;
+    }
+
+    private static <T extends ObjectMapper> T configure(T mapper) {
+        mapper.findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        return mapper;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encodeUnchecked(Object value) throws IOException;
+
+        default byte[] encode(Object value) {
+            try {
+                return encodeUnchecked(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private abstract static class BoxedLikes {
+        @JsonSerialize(using = JsonSerializer.None.class)
+        abstract Set<Long> getLikes();
+    }
+}
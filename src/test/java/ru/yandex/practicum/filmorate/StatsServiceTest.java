@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.EventType;
+import ru.yandex.practicum.filmorate.event.FilmEvent;
+import ru.yandex.practicum.filmorate.event.LikesEvent;
+import ru.yandex.practicum.filmorate.event.UserEvent;
+import ru.yandex.practicum.filmorate.model.CatalogStats;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.service.StatsService;
+import ru.yandex.practicum.filmorate.sketch.CountMinSketch;
+import ru.yandex.practicum.filmorate.sketch.HeavyHitters;
+import ru.yandex.practicum.filmorate.sketch.HyperLogLog;
+import ru.yandex.practicum.filmorate.sketch.LogHistogram;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatsServiceTest {
+
+    private InMemoryFilmStorage filmStorage;
+    private StatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage(new InMemoryLikeStorage());
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        statsService = new StatsService(filmStorage, clock, 4, 7, 12, 0.001, 0.01, 3, 0.01);
+    }
+
+    @Test
+    void hyperLogLogShouldStayWithinThreeStandardErrors() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (long i = 0; i < 100_000; i++) {
+            (i % 2 == 0 ? left : right).offer(i);
+        }
+        left.merge(right);
+
+        double error = Math.abs(left.estimate() - 100_000) / 100_000.0;
+        assertTrue(error < 3 * left.relativeError(), "Ошибка оценки: " + error);
+    }
+
+    @Test
+    void histogramQuantilesShouldRespectRelativeAccuracy() {
+        LogHistogram histogram = new LogHistogram(0.01, 2048);
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.add(value, 1);
+        }
+
+        assertEquals(5_000, histogram.quantile(0.5), 50);
+        assertEquals(9_900, histogram.quantile(0.99), 99);
+    }
+
+    @Test
+    void statsShouldTrackLikesPerGenreAndDistribution() {
+        Film comedy = film(1L);
+        Film drama = film(2L);
+        Film other = film(3L);
+        for (Film film : List.of(comedy, drama, other)) {
+            statsService.onFilmEvent(new FilmEvent(EventType.CREATED, film.getId()));
+        }
+        for (long userId = 1; userId <= 5; userId++) {
+            like(comedy, userId, true);
+        }
+        like(drama, 1L, true);
+        like(drama, 2L, true);
+        like(drama, 2L, false);
+
+        CatalogStats stats = statsService.getStats();
+
+        CatalogStats.DailyCount today = stats.distinctLikers().days().get(0);
+        assertEquals(LocalDate.of(2026, 10, 19), today.date());
+        assertEquals(5, today.estimate());
+        assertEquals(3, stats.likeCountDistribution().films());
+        assertEquals(1, stats.likeCountDistribution().p50());
+        assertEquals(5, stats.likeCountDistribution().max());
+        assertEquals(comedy.getId(), stats.heavyHitters().byGenre().get(1L).get(0).filmId());
+        assertEquals(5, stats.heavyHitters().byGenre().get(1L).get(0).estimatedLikes());
+        assertEquals(1, stats.heavyHitters().byGenre().get(2L).get(0).estimatedLikes());
+
+        statsService.onUserEvent(new UserEvent(EventType.CLEARED, null));
+        CatalogStats cleared = statsService.getStats();
+        assertEquals(0, cleared.likeCountDistribution().max());
+        assertEquals(3, cleared.likeCountDistribution().films());
+        assertTrue(cleared.heavyHitters().byGenre().isEmpty());
+    }
+
+    @Test
+    void filmUpdateShouldResyncLikesAddedWithoutLikesEvents() {
+        Film film = film(1L);
+        statsService.onFilmEvent(new FilmEvent(EventType.CREATED, film.getId()));
+        like(film, 1L, true);
+        for (long userId = 2; userId <= 40; userId++) {
+            film.getLikes().add(userId);
+        }
+        statsService.onFilmEvent(new FilmEvent(EventType.UPDATED, film.getId()));
+        statsService.onLikesEvent(LikesEvent.of(film.getId(), 1L, true));
+
+        CatalogStats stats = statsService.getStats();
+
+        assertEquals(40, stats.likeCountDistribution().max(), 1);
+        CatalogStats.FilmCount top = stats.heavyHitters().byGenre().get(1L).get(0);
+        assertEquals(40, top.estimatedLikes());
+        assertEquals(1, top.maxOverestimate());
+    }
+
+    @Test
+    void heavyHittersShouldKeepRemovalsOutOfTheAdditionBound() {
+        HeavyHitters hitters = new HeavyHitters(new CountMinSketch(0.01, 0.01), 2);
+        for (long item = 0; item < 1_000; item++) {
+            hitters.add(item, 10);
+            hitters.add(item, -10);
+        }
+        hitters.add(5_000L, 3);
+
+        assertEquals(10_003, hitters.getAdditions().getTotalCount());
+        assertEquals(10_000, hitters.getRemovals().getTotalCount());
+        long estimate = hitters.estimate(5_000L);
+        assertTrue(estimate <= 3 + Math.ceil(0.01 * hitters.getAdditions().getTotalCount()));
+        assertTrue(estimate >= 3 - Math.ceil(0.01 * hitters.getRemovals().getTotalCount()));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0.01, 0.01).add(1L, -1));
+    }
+
+    private void like(Film film, long userId, boolean added) {
+        if (added) {
+            film.getLikes().add(userId);
+        } else {
+            film.getLikes().remove(userId);
+        }
+        statsService.onLikesEvent(LikesEvent.of(film.getId(), userId, added));
+    }
+
+    private Film film(long genreId) {
+        Film film = new Film();
+        film.setName("Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        film.setGenres(Set.of(new Genre(genreId, null)));
+        return filmStorage.create(film);
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.PreconditionFailedException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.TieredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.TieredUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "filmorate.storage.tiered.enabled=true",
+        "filmorate.storage.tiered.dir=${java.io.tmpdir}/filmorate-tiered-test",
+        "filmorate.storage.tiered.max-hot-users=10",
+        "filmorate.storage.tiered.max-hot-films=10",
+        "filmorate.storage.tiered.maintenance-ms=3600000"
+})
+public class TieredStorageTest {
+
+    @Autowired
+    private UserStorage userStorage;
+    @Autowired
+    private FilmStorage filmStorage;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        filmService.clearAllFilms();
+        userService.clearAllUsers();
+    }
+
+    @Test
+    void coldUsersShouldRoundTripThroughPageFile() {
+        assertInstanceOf(TieredUserStorage.class, userStorage);
+        for (int i = 1; i <= 100; i++) {
+            userService.create(user("user" + i));
+        }
+        for (long id = 2; id <= 100; id++) {
+            userService.addFriend(1L, id);
+        }
+        ((TieredUserStorage) userStorage).evictExcess();
+        assertTrue(meterRegistry.get("filmorate.storage.hot").tag("storage", "user").gauge().value() <= 10);
+        double missesBefore = misses("user");
+
+        for (long id = 100; id >= 1; id--) {
+            User user = userStorage.findById(id).orElseThrow();
+            assertEquals("user" + id, user.getLogin());
+            assertEquals(LocalDate.of(1990, 1, 1), user.getBirthday());
+        }
+        assertEquals(99, userStorage.findById(1L).orElseThrow().getFriends().size());
+        assertEquals(99, userService.getFriends(1L).size());
+        assertTrue(misses("user") > missesBefore);
+        assertEquals(100, userStorage.findAll().size());
+
+        userService.deleteUser(50L);
+        assertEquals(99, userStorage.findAll().size());
+        assertEquals(98, userStorage.findAll().stream().filter(user -> user.getId() == 1L).findFirst()
+                .orElseThrow().getFriends().size());
+    }
+
+    @Test
+    void updatesShouldKeepVersionsAcrossEviction() {
+        for (int i = 1; i <= 50; i++) {
+            filmService.create(film("Film " + i));
+        }
+        userService.create(user("fan"));
+        filmService.addLike(1L, 1L);
+
+        Film change = new Film();
+        change.setId(1L);
+        change.setName("Renamed");
+        Film updated = filmService.update(change, 1L);
+        assertEquals(2, updated.getVersion());
+        for (long id = 2; id <= 50; id++) {
+            filmStorage.findById(id).orElseThrow();
+        }
+        ((TieredFilmStorage) filmStorage).evictExcess();
+        double missesBefore = misses("film");
+
+        Film reloaded = filmStorage.findById(1L).orElseThrow();
+        assertEquals(missesBefore + 1, misses("film"));
+        assertEquals("Renamed", reloaded.getName());
+        assertEquals(2, reloaded.getVersion());
+        assertEquals(Set.of(1L), reloaded.getLikes());
+        assertThrows(PreconditionFailedException.class, () -> filmService.update(change, 1L));
+        assertEquals(50, filmService.findAll().size());
+    }
+
+    @Test
+    void coldFilmsShouldNotKeepLikesOfClearedUsers() {
+        for (int i = 1; i <= 50; i++) {
+            filmService.create(film("Film " + i));
+        }
+        Long fanId = userService.create(user("fan")).getId();
+        filmService.addLike(1L, fanId);
+        for (long id = 2; id <= 50; id++) {
+            filmStorage.findById(id).orElseThrow();
+        }
+        ((TieredFilmStorage) filmStorage).evictExcess();
+
+        userService.clearAllUsers();
+        Long newFanId = userService.create(user("newcomer")).getId();
+        double missesBefore = misses("film");
+
+        Film reloaded = filmStorage.findById(1L).orElseThrow();
+        assertEquals(missesBefore + 1, misses("film"));
+        assertEquals(fanId, newFanId);
+        assertTrue(reloaded.getLikes().isEmpty());
+        assertEquals(0, reloaded.getLikeCount());
+    }
+
+    private double misses(String storage) {
+        return meterRegistry.get("filmorate.storage.misses").tag("storage", storage).functionCounter().count();
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@b.c");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("d");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        return film;
+    }
+}
@@ -5,12 +5,28 @@ import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.filmorate.controller.UserController;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.CascadeLock;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.TrendingIndex;
+import ru.yandex.practicum.filmorate.service.FriendPathFinder;
+import ru.yandex.practicum.filmorate.service.FriendsCache;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.InMemoryFriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +35,10 @@ public class UserControllerTest {
     private UserController userController;
     private UserStorage userStorage;
     private UserService userService;
+    private FriendsCache friendsCache;
+    private FilmStorage filmStorage;
+    private LikeStorage likeStorage;
+    private CascadeLock cascadeLock;
 
     private User createValidUser() {
         User user = new User();
@@ -31,8 +51,14 @@ public class UserControllerTest {
 
     @BeforeEach
     void setUp() {
-        userStorage = new InMemoryUserStorage();
-        userService = new UserService(userStorage);
+        FriendshipStorage friendshipStorage = new InMemoryFriendshipStorage();
+        userStorage = new InMemoryUserStorage(friendshipStorage);
+        friendsCache = new FriendsCache(100);
+        likeStorage = new InMemoryLikeStorage();
+        filmStorage = new InMemoryFilmStorage(likeStorage);
+        cascadeLock = new CascadeLock();
+        userService = new UserService(userStorage, friendshipStorage, likeStorage, cascadeLock,
+                friendsCache, new FriendPathFinder(friendshipStorage, 1_000), event -> { });
         userController = new UserController(userService);
     }
 
@@ -152,7 +178,7 @@ public class UserControllerTest {
         updateUser.setName("Updated Name");
         updateUser.setEmail("updated@yandex.by");
 
-        User updatedUser = userController.update(updateUser);
+        User updatedUser = userController.update(updateUser, null);
 
         assertEquals("Updated Name", updatedUser.getName());
         assertEquals("updated@yandex.by", updatedUser.getEmail());
@@ -165,7 +191,7 @@ public class UserControllerTest {
         user.setId(999L);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> userController.update(user));
+                () -> userController.update(user, null));
         assertEquals("Пользователь с id = 999 не найден", exception.getMessage());
     }
 
@@ -175,7 +201,7 @@ public class UserControllerTest {
         user.setId(null);
 
         NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> userController.update(user));
+                () -> userController.update(user, null));
         assertEquals("Пользователь с id = null не найден", exception.getMessage());
     }
 
@@ -186,7 +212,7 @@ public class UserControllerTest {
         updateUser.setId(existingUser.getId());
         updateUser.setName("Only Name Updated");
 
-        User updatedUser = userController.update(updateUser);
+        User updatedUser = userController.update(updateUser, null);
 
         assertEquals("Only Name Updated", updatedUser.getName());
         assertEquals(existingUser.getEmail(), updatedUser.getEmail());
@@ -200,7 +226,7 @@ public class UserControllerTest {
         User updateUser = new User();
         updateUser.setId(existingUser.getId());
         updateUser.setName("");
-        User updatedUser = userController.update(updateUser);
+        User updatedUser = userController.update(updateUser, null);
         assertEquals(existingUser.getLogin(), updatedUser.getName());
     }
 
@@ -211,4 +237,151 @@ public class UserControllerTest {
         var users = userController.findAll();
         assertEquals(2, users.size());
     }
+
+    @Test
+    void getFriendsShouldBeServedFromCacheAndInvalidatedByFriendChanges() {
+        User user = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+        User other = userController.create(createValidUser());
+        userController.addFriend(user.getId(), friend.getId());
+
+        assertEquals(1, userController.getFriends(user.getId()).size());
+        assertSame(userController.getFriends(user.getId()), userController.getFriends(user.getId()));
+
+        userController.addFriend(user.getId(), other.getId());
+        assertEquals(2, userController.getFriends(user.getId()).size());
+
+        userController.removeFriend(user.getId(), friend.getId());
+        assertEquals(1, userController.getFriends(user.getId()).size());
+        assertTrue(userController.getFriends(friend.getId()).isEmpty());
+    }
+
+    @Test
+    void updateShouldInvalidateCachedFriendListsContainingUser() {
+        User user = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+        User other = userController.create(createValidUser());
+        userController.addFriend(user.getId(), friend.getId());
+        userController.addFriend(other.getId(), friend.getId());
+        userController.getFriends(user.getId());
+        userController.getCommonFriends(user.getId(), other.getId());
+
+        User rename = new User();
+        rename.setId(friend.getId());
+        rename.setName("Renamed");
+        userController.update(rename, null);
+
+        assertEquals("Renamed", userController.getFriends(user.getId()).getFirst().getName());
+        assertEquals("Renamed", userController.getCommonFriends(other.getId(), user.getId()).getFirst().getName());
+    }
+
+    @Test
+    void friendRequestShouldStayUnconfirmedUntilAccepted() {
+        User user = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+
+        userController.addFriend(user.getId(), friend.getId());
+
+        assertEquals(FriendshipStatus.UNCONFIRMED,
+                userController.getFriendship(user.getId(), friend.getId()).getStatus());
+        assertEquals(1, userController.getFriends(user.getId()).size());
+        assertTrue(userController.getFriends(friend.getId()).isEmpty());
+        assertEquals(user.getId(), userController.getFriendRequests(friend.getId()).getFirst().getId());
+        assertTrue(userController.getConfirmedFriends(user.getId()).isEmpty());
+
+        userController.addFriend(friend.getId(), user.getId());
+
+        assertEquals(FriendshipStatus.CONFIRMED,
+                userController.getFriendship(user.getId(), friend.getId()).getStatus());
+        assertEquals(FriendshipStatus.CONFIRMED,
+                userController.getFriendship(friend.getId(), user.getId()).getStatus());
+        assertTrue(userController.getFriendRequests(friend.getId()).isEmpty());
+        assertEquals(friend.getId(), userController.getConfirmedFriends(user.getId()).getFirst().getId());
+    }
+
+    @Test
+    void removingConfirmedFriendShouldTurnReverseEdgeBackIntoRequest() {
+        User user = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+        userController.addFriend(user.getId(), friend.getId());
+        userController.addFriend(friend.getId(), user.getId());
+
+        userController.removeFriend(user.getId(), friend.getId());
+
+        assertEquals(FriendshipStatus.UNCONFIRMED,
+                userController.getFriendship(friend.getId(), user.getId()).getStatus());
+        assertEquals(friend.getId(), userController.getFriendRequests(user.getId()).getFirst().getId());
+        assertThrows(NotFoundException.class, () -> userController.getFriendship(user.getId(), friend.getId()));
+    }
+
+    @Test
+    void deleteUserShouldRemoveItFromFollowersAndLikedFilms() {
+        FilmService filmService = new FilmService(filmStorage, userStorage, likeStorage, cascadeLock,
+                new TrendingIndex(), Optional.empty(), event -> { });
+        Film film = new Film();
+        film.setName("Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film = filmService.create(film);
+        User user = userController.create(createValidUser());
+        User follower = userController.create(createValidUser());
+        userController.addFriend(follower.getId(), user.getId());
+        userController.addFriend(user.getId(), follower.getId());
+        filmService.addLike(film.getId(), user.getId());
+        userController.getFriends(follower.getId());
+
+        userController.deleteUser(user.getId());
+
+        assertTrue(userController.getFriends(follower.getId()).isEmpty());
+        assertTrue(userController.getFriendRequests(follower.getId()).isEmpty());
+        assertFalse(follower.getFriends().contains(user.getId()));
+        assertTrue(film.getLikes().isEmpty());
+        assertEquals(0, filmService.getMostPopular(1).getFirst().getLikeCount());
+    }
+
+    @Test
+    void clearAllShouldRestartIdsAndDropLikes() {
+        FilmService filmService = new FilmService(filmStorage, userStorage, likeStorage, cascadeLock,
+                new TrendingIndex(), Optional.empty(), event -> { });
+        Film film = new Film();
+        film.setName("Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film = filmService.create(film);
+        User user = userController.create(createValidUser());
+        filmService.addLike(film.getId(), user.getId());
+
+        userController.clearAll();
+
+        assertTrue(userController.findAll().isEmpty());
+        assertTrue(filmStorage.findById(film.getId()).orElseThrow().getLikes().isEmpty());
+        assertTrue(film.getLikes().isEmpty());
+        Long newUserId = userController.create(createValidUser()).getId();
+        assertEquals(1L, newUserId);
+
+        filmService.addLike(film.getId(), newUserId);
+        assertEquals(Set.of(newUserId), film.getLikes());
+    }
+
+    @Test
+    void getPathShouldReturnShortestFriendChain() {
+        User[] users = new User[6];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = userController.create(createValidUser());
+        }
+        userController.addFriend(users[0].getId(), users[1].getId());
+        userController.addFriend(users[1].getId(), users[2].getId());
+        userController.addFriend(users[2].getId(), users[3].getId());
+        userController.addFriend(users[3].getId(), users[4].getId());
+        userController.addFriend(users[0].getId(), users[5].getId());
+        userController.addFriend(users[5].getId(), users[3].getId());
+
+        List<User> path = userController.getPath(users[0].getId(), users[4].getId(), 6);
+
+        assertEquals(List.of(users[0].getId(), users[5].getId(), users[3].getId(), users[4].getId()),
+                path.stream().map(User::getId).toList());
+        assertThrows(NotFoundException.class, () -> userController.getPath(users[0].getId(), users[4].getId(), 2));
+        assertThrows(NotFoundException.class, () -> userController.getPath(users[4].getId(), users[0].getId(), 6));
+        assertEquals(1, userController.getPath(users[2].getId(), users[2].getId(), 6).size());
+    }
 }